@@ -0,0 +1,18 @@
+package com.ctrader.matslider;
+
+import androidx.annotation.NonNull;
+
+public interface BaseOnValuesChangeListener<S> {
+
+  /**
+   * Called once per batch of value changes. {@code values} holds every thumb value in order and
+   * the first {@code changedCount} entries of {@code changedIndices} name the thumbs that changed.
+   * Both arrays are reused between calls and must not be kept or modified.
+   */
+  void onValuesChange(
+      @NonNull S slider,
+      @NonNull float[] values,
+      @NonNull int[] changedIndices,
+      int changedCount,
+      boolean fromUser);
+}
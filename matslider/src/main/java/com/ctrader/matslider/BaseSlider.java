@@ -4,6 +4,7 @@ import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Paint.Cap;
@@ -21,6 +22,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.Choreographer;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.View;
@@ -39,6 +41,7 @@ import androidx.annotation.IntDef;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 import androidx.annotation.VisibleForTesting;
 import androidx.appcompat.content.res.AppCompatResources;
 import androidx.core.graphics.drawable.DrawableCompat;
@@ -53,10 +56,8 @@ import com.ctrader.matslider.internal.ShapeAppearanceModel;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
-import java.math.BigDecimal;
-import java.math.MathContext;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 import static androidx.core.math.MathUtils.clamp;
@@ -84,6 +85,15 @@ abstract class BaseSlider<
             "valueTo(%s) must be greater than valueFrom(%s)";
     private static final String EXCEPTION_ILLEGAL_STEP_SIZE =
             "The stepSize(%s) must be 0, or a factor of the valueFrom(%s)-valueTo(%s) range";
+    private static final String EXCEPTION_ILLEGAL_ALLOWED_VALUE =
+            "Allowed value(%s) must be greater or equal to valueFrom(%s), and lower or equal to"
+                    + " valueTo(%s)";
+    private static final String EXCEPTION_ILLEGAL_NOT_ALLOWED_VALUE =
+            "Value(%s) must be one of the allowed values";
+    private static final String EXCEPTION_ILLEGAL_DECIMAL_DIGITS =
+            "Decimal digits(%s) must be NO_DECIMAL_DIGITS or between 0 and %s";
+    private static final String EXCEPTION_ILLEGAL_DECIMAL_STEP_SIZE =
+            "The stepSize(%s) must not round to 0 with %s decimal digits";
     private static final String WARNING_FLOATING_POINT_ERRROR =
             "Floating point value used for %s(%s). Using floats can have rounding errors which may"
                     + " result in incorrect values. Instead, consider using integers with a custom"
@@ -92,11 +102,16 @@ abstract class BaseSlider<
     private static final int TIMEOUT_SEND_ACCESSIBILITY_EVENT = 200;
     private static final int HALO_ALPHA = 63;
     private static final double THRESHOLD = .0001;
+    private static final int MAX_TICK_DIGITS = 17;
+    private static final long PREDICTION_HORIZON_MILLIS = 16;
 
     static final int DEF_STYLE_RES = R.style.Widget_MaterialComponents_Slider;
     static final int UNIT_VALUE = 1;
     static final int UNIT_PX = 0;
 
+    public static final int NO_DECIMAL_DIGITS = -1;
+    private static final int MAX_DECIMAL_DIGITS = 9;
+
     @NonNull
     private final Paint inactiveTrackPaint;
     @NonNull
@@ -118,10 +133,31 @@ abstract class BaseSlider<
     @NonNull
     private final List<L> changeListeners = new ArrayList<>();
     @NonNull
+    private final List<BaseOnValuesChangeListener<S>> valuesChangeListeners = new ArrayList<>();
+    // Listeners may change values again, so each nesting level of a dispatch has its own buffers.
+    @NonNull
+    private int[][] changedIndices = {new int[1]};
+    @NonNull
+    private float[][] valuesSnapshots = {new float[1]};
+    private int dispatchDepth;
+    @NonNull
     private final List<T> touchListeners = new ArrayList<>();
 
     private final int scaledTouchSlop;
 
+    private boolean changeDispatchCoalesced;
+    @NonNull
+    private boolean[] pendingUserChanges = new boolean[1];
+    private boolean userChangeDispatchScheduled;
+    private final Choreographer.FrameCallback userChangeDispatcher =
+            new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    userChangeDispatchScheduled = false;
+                    dispatchPendingUserChanges();
+                }
+            };
+
     private int minTrackSidePadding;
     private int defaultThumbRadius;
 
@@ -132,19 +168,57 @@ abstract class BaseSlider<
     private int thumbRadius;
     private int haloRadius;
     private float touchDownX;
-    private MotionEvent lastEvent;
+    private int lastTouchAction = -1;
+    private float lastTouchX;
+    private float lastTouchY;
+    private boolean inScrollingContainer;
+    private boolean inScrollingContainerValid;
+    private boolean historicalTouchSamplesEnabled;
+    private boolean foldingTouchSamples;
+    private boolean lowLatencyEnabled;
+    @Nullable
+    private TouchPredictor touchPredictor;
+    private float predictedThumbValue = Float.NaN;
     private boolean thumbIsPressed = false;
     private float valueFrom;
     private float valueTo;
 
 
-    private ArrayList<Float> values = new ArrayList<>();
+    private float[] values = new float[1];
+    private int valueCount;
 
     private int activeThumbIdx = -1;
 
     private int focusedThumbIdx = -1;
     private float stepSize = 0.0f;
+    @Nullable
+    private float[] allowedValues;
+    @NonNull
+    private long[] valueTicks = new long[1];
+    private int decimalDigits = NO_DECIMAL_DIGITS;
+    private long valueScale = 1;
+    // Kept exactly while decimal digits are set; the float bounds and step are derived from them.
+    private long scaledValueFrom;
+    private long scaledValueTo;
+    private long scaledStepSize;
+    // Decimal forms of valueFrom and stepSize, valid while the keys equal the current floats.
+    private double decimalValueFrom;
+    private float decimalValueFromKey = Float.NaN;
+    private double decimalStepSize;
+    private float decimalStepSizeKey = Float.NaN;
+    @NonNull
+    private long[] scaledValues = new long[1];
     private float[] ticksCoordinates;
+    private boolean ticksCoordinatesShared;
+    private final float[] activeRange = new float[2];
+    private boolean activeRangeDirty = true;
+    @NonNull
+    private int[] thumbPositions = new int[1];
+    private boolean thumbPositionsDirty = true;
+    private int thumbPositionsTrackWidth;
+    private int thumbPositionsTrackSidePadding;
+    private float dirtyLeft = Float.MAX_VALUE;
+    private float dirtyRight = -Float.MAX_VALUE;
     private boolean tickVisible = true;
     private int trackWidth;
     private boolean forceDrawCompatHalo;
@@ -164,6 +238,14 @@ abstract class BaseSlider<
 
     @NonNull
     private final MaterialShapeDrawable thumbDrawable = new MaterialShapeDrawable();
+    @NonNull
+    private final ThumbSpriteCache thumbSprites = new ThumbSpriteCache(thumbDrawable);
+    @Nullable
+    private SliderRenderResources renderResources;
+    private boolean thumbSpritesEnabled;
+    @Nullable
+    private SliderRenderNodes renderNodes;
+    private boolean renderNodesEnabled;
 
     private float touchPosition;
     @SeparationUnit
@@ -331,7 +413,7 @@ abstract class BaseSlider<
     }
 
     private void validateValueFrom() {
-        if (valueFrom >= valueTo) {
+        if (isFixedPoint() ? scaledValueFrom >= scaledValueTo : valueFrom >= valueTo) {
             throw new IllegalStateException(
                     String.format(
                             EXCEPTION_ILLEGAL_VALUE_FROM, Float.toString(valueFrom), Float.toString(valueTo)));
@@ -339,7 +421,7 @@ abstract class BaseSlider<
     }
 
     private void validateValueTo() {
-        if (valueTo <= valueFrom) {
+        if (isFixedPoint() ? scaledValueTo <= scaledValueFrom : valueTo <= valueFrom) {
             throw new IllegalStateException(
                     String.format(
                             EXCEPTION_ILLEGAL_VALUE_TO, Float.toString(valueTo), Float.toString(valueFrom)));
@@ -347,20 +429,169 @@ abstract class BaseSlider<
     }
 
     private boolean valueLandsOnTick(float value) {
+        if (allowedValues != null) {
+            return Arrays.binarySearch(allowedValues, value) >= 0;
+        }
+        if (isFixedPoint()) {
+            return scaledValueLandsOnTick(toScaled(value));
+        }
+        return landsOnTick(toDecimal(value), getDecimalValueFrom(), getDecimalStepSize());
+    }
 
+    private static boolean landsOnTick(double value, double valueFrom, double stepSize) {
+        double potentialTickValue = (value - valueFrom) / stepSize;
+        return Math.abs(Math.round(potentialTickValue) - potentialTickValue) < THRESHOLD;
+    }
 
-        double potentialTickValue =
-                new BigDecimal(Float.toString(value))
-                        .subtract(new BigDecimal(Float.toString(valueFrom)))
-                        .divide(new BigDecimal(Float.toString(stepSize)), MathContext.DECIMAL64)
-                        .doubleValue();
+    // Ticks are counted on the decimals the floats stand for, like Float.toString prints them, so
+    // that e.g. a step of 0.01f doesn't drift away from whole ticks over a long range.
+    private double getPotentialTickValue(float value) {
+        return (toDecimal(value) - getDecimalValueFrom()) / getDecimalStepSize();
+    }
 
+    private double getDecimalValueFrom() {
+        if (decimalValueFromKey != valueFrom) {
+            decimalValueFrom = toDecimal(valueFrom);
+            decimalValueFromKey = valueFrom;
+        }
+        return decimalValueFrom;
+    }
 
-        return Math.abs(Math.round(potentialTickValue) - potentialTickValue) < THRESHOLD;
+    private double getDecimalStepSize() {
+        if (decimalStepSizeKey != stepSize) {
+            decimalStepSize = toDecimal(stepSize);
+            decimalStepSizeKey = stepSize;
+        }
+        return decimalStepSize;
+    }
+
+    /**
+     * Returns the double closest to the decimal with the fewest fraction digits that rounds to
+     * {@code value}, or {@code value} itself if it needs more than {@link #MAX_TICK_DIGITS}.
+     */
+    @VisibleForTesting
+    static double toDecimal(float value) {
+        double scale = 1;
+        for (int digits = 0; digits <= MAX_TICK_DIGITS; digits++) {
+            double decimal = Math.rint(value * scale) / scale;
+            if ((float) decimal == value) {
+                return decimal;
+            }
+            scale *= 10;
+        }
+        return value;
+    }
+
+    private boolean scaledValueLandsOnTick(long scaled) {
+        return scaledStepSize > 0 && (scaled - scaledValueFrom) % scaledStepSize == 0;
+    }
+
+    private long getTickIndex(float value) {
+        if (allowedValues != null) {
+            return getNearestAllowedIndex(value);
+        }
+        if (isFixedPoint()) {
+            return Math.round((double) (toScaled(value) - scaledValueFrom) / scaledStepSize);
+        }
+        return Math.round(getPotentialTickValue(value));
+    }
+
+    private long getTickCount() {
+        if (allowedValues != null) {
+            return allowedValues.length - 1;
+        }
+        if (isFixedPoint()) {
+            return (scaledValueTo - scaledValueFrom) / scaledStepSize;
+        }
+        return calculateTickCount(valueFrom, valueTo, stepSize);
+    }
+
+    /**
+     * Returns the number of steps between {@code valueFrom} and {@code valueTo}, counted the same
+     * way for a live slider and for prefetched {@link SliderRenderResources}.
+     */
+    static long calculateTickCount(float valueFrom, float valueTo, float stepSize) {
+        return Math.round((toDecimal(valueTo) - toDecimal(valueFrom)) / toDecimal(stepSize));
+    }
+
+    private float getTickValue(long tick) {
+        if (allowedValues != null) {
+            return allowedValues[(int) tick];
+        }
+        if (isFixedPoint()) {
+            return fromScaled(getScaledTickValue(tick));
+        }
+        return (float) (getDecimalValueFrom() + tick * getDecimalStepSize());
+    }
+
+    private long getScaledTickValue(long tick) {
+        if (allowedValues != null) {
+            return toScaled(allowedValues[(int) tick]);
+        }
+        return scaledValueFrom + tick * scaledStepSize;
+    }
+
+    private int getNearestAllowedIndex(float value) {
+        float[] allowed = allowedValues;
+        int idx = Arrays.binarySearch(allowed, value);
+        if (idx >= 0) {
+            return idx;
+        }
+        int upper = -idx - 1;
+        if (upper == 0) {
+            return 0;
+        }
+        if (upper == allowed.length) {
+            return upper - 1;
+        }
+        return value - allowed[upper - 1] <= allowed[upper] - value ? upper - 1 : upper;
+    }
+
+    private boolean isDiscrete() {
+        return stepSize > 0.0f || allowedValues != null;
+    }
+
+    private boolean isFixedPoint() {
+        return decimalDigits != NO_DECIMAL_DIGITS;
+    }
+
+    private long toScaled(float value) {
+        return Math.round(value * (double) valueScale);
+    }
+
+    private float fromScaled(long scaled) {
+        return (float) (scaled / (double) valueScale);
+    }
+
+    private static long rescale(long scaled, long previousScale, long scale) {
+        if (scale >= previousScale) {
+            return scaled * (scale / previousScale);
+        }
+        return Math.round(scaled / (double) (previousScale / scale));
+    }
+
+    private void validateAllowedValues() {
+        float[] allowed = allowedValues;
+        if (allowed == null) {
+            return;
+        }
+        float first = allowed[0];
+        float last = allowed[allowed.length - 1];
+        if (first < valueFrom || last > valueTo) {
+            throw new IllegalStateException(
+                    String.format(
+                            EXCEPTION_ILLEGAL_ALLOWED_VALUE,
+                            Float.toString(first < valueFrom ? first : last),
+                            Float.toString(valueFrom),
+                            Float.toString(valueTo)));
+        }
     }
 
     private void validateStepSize() {
-        if (stepSize > 0.0f && !valueLandsOnTick(valueTo)) {
+        if (stepSize > 0.0f
+                && (isFixedPoint()
+                        ? !scaledValueLandsOnTick(scaledValueTo)
+                        : !valueLandsOnTick(valueTo))) {
             throw new IllegalStateException(
                     String.format(
                             EXCEPTION_ILLEGAL_STEP_SIZE,
@@ -371,7 +602,19 @@ abstract class BaseSlider<
     }
 
     private void validateValues() {
-        for (Float value : values) {
+        if (valueTicks.length < valueCount) {
+            valueTicks = new long[values.length];
+        }
+        for (int i = 0; i < valueCount; i++) {
+            float value = values[i];
+            if (allowedValues != null) {
+                validateAllowedValue(i);
+                continue;
+            }
+            if (isFixedPoint()) {
+                validateScaledValue(i);
+                continue;
+            }
             if (value < valueFrom || value > valueTo) {
                 throw new IllegalStateException(
                         String.format(
@@ -389,11 +632,47 @@ abstract class BaseSlider<
                                 Float.toString(stepSize),
                                 Float.toString(stepSize)));
             }
+            if (stepSize > 0.0f) {
+                valueTicks[i] = getTickIndex(value);
+            }
+        }
+    }
+
+    private void validateAllowedValue(int idx) {
+        int tick = Arrays.binarySearch(allowedValues, values[idx]);
+        if (tick < 0) {
+            throw new IllegalStateException(
+                    String.format(EXCEPTION_ILLEGAL_NOT_ALLOWED_VALUE, Float.toString(values[idx])));
+        }
+        valueTicks[idx] = tick;
+    }
+
+    private void validateScaledValue(int idx) {
+        long scaled = scaledValues[idx];
+        if (scaled < scaledValueFrom || scaled > scaledValueTo) {
+            throw new IllegalStateException(
+                    String.format(
+                            EXCEPTION_ILLEGAL_VALUE,
+                            Float.toString(values[idx]),
+                            Float.toString(valueFrom),
+                            Float.toString(valueTo)));
+        }
+        if (stepSize > 0.0f) {
+            if (!scaledValueLandsOnTick(scaled)) {
+                throw new IllegalStateException(
+                        String.format(
+                                EXCEPTION_ILLEGAL_DISCRETE_VALUE,
+                                Float.toString(values[idx]),
+                                Float.toString(valueFrom),
+                                Float.toString(stepSize),
+                                Float.toString(stepSize)));
+            }
+            valueTicks[idx] = (scaled - scaledValueFrom) / scaledStepSize;
         }
     }
 
     private void warnAboutFloatingPointError() {
-        if (stepSize == 0) {
+        if (stepSize == 0 || isFixedPoint()) {
 
             return;
         }
@@ -415,9 +694,13 @@ abstract class BaseSlider<
         if (dirtyConfig) {
             validateValueFrom();
             validateValueTo();
-            validateStepSize();
+            // Allowed values take precedence over the step size, which is then left unchecked.
+            if (allowedValues == null) {
+                validateStepSize();
+                warnAboutFloatingPointError();
+            }
+            validateAllowedValues();
             validateValues();
-            warnAboutFloatingPointError();
             dirtyConfig = false;
         }
     }
@@ -428,8 +711,23 @@ abstract class BaseSlider<
 
     public void setValueFrom(float valueFrom) {
         this.valueFrom = valueFrom;
-        dirtyConfig = true;
-        postInvalidate();
+        scaledValueFrom = toScaled(valueFrom);
+        onRangeChanged();
+    }
+
+    public long getScaledValueFrom() {
+        return isFixedPoint() ? scaledValueFrom : toScaled(valueFrom);
+    }
+
+    /**
+     * Sets the lower bound in units of {@code 10^-decimalDigits}, without the rounding a float
+     * bound goes through. Requires decimal digits to be set.
+     */
+    public void setScaledValueFrom(long scaledValueFrom) {
+        checkFixedPoint();
+        this.scaledValueFrom = scaledValueFrom;
+        valueFrom = fromScaled(scaledValueFrom);
+        onRangeChanged();
     }
 
     public float getValueTo() {
@@ -438,40 +736,250 @@ abstract class BaseSlider<
 
     public void setValueTo(float valueTo) {
         this.valueTo = valueTo;
+        scaledValueTo = toScaled(valueTo);
+        onRangeChanged();
+    }
+
+    public long getScaledValueTo() {
+        return isFixedPoint() ? scaledValueTo : toScaled(valueTo);
+    }
+
+    /**
+     * Sets the upper bound in units of {@code 10^-decimalDigits}, without the rounding a float
+     * bound goes through. Requires decimal digits to be set.
+     */
+    public void setScaledValueTo(long scaledValueTo) {
+        checkFixedPoint();
+        this.scaledValueTo = scaledValueTo;
+        valueTo = fromScaled(scaledValueTo);
+        onRangeChanged();
+    }
+
+    private void onRangeChanged() {
         dirtyConfig = true;
+        activeRangeDirty = true;
+        thumbPositionsDirty = true;
         postInvalidate();
     }
 
+    private void checkFixedPoint() {
+        if (!isFixedPoint()) {
+            throw new IllegalStateException("Decimal digits must be set to use scaled values");
+        }
+    }
+
     @NonNull
     List<Float> getValues() {
-        return new ArrayList<>(values);
+        List<Float> list = new ArrayList<>(valueCount);
+        for (int i = 0; i < valueCount; i++) {
+            list.add(values[i]);
+        }
+        return list;
+    }
+
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    public float getValue(int index) {
+        if (index < 0 || index >= valueCount) {
+            throw new IllegalArgumentException("index out of range");
+        }
+        return values[index];
+    }
+
+    public long getScaledValue(int index) {
+        if (index < 0 || index >= valueCount) {
+            throw new IllegalArgumentException("index out of range");
+        }
+        return isFixedPoint() ? scaledValues[index] : toScaled(values[index]);
+    }
+
+    @NonNull
+    public long[] getScaledValues(@Nullable long[] out) {
+        if (out == null || out.length < valueCount) {
+            out = new long[valueCount];
+        }
+        for (int i = 0; i < valueCount; i++) {
+            out[i] = isFixedPoint() ? scaledValues[i] : toScaled(values[i]);
+        }
+        return out;
+    }
+
+    public int getDecimalDigits() {
+        return decimalDigits;
+    }
+
+    /**
+     * Keeps values, bounds and step as whole multiples of {@code 10^-decimalDigits} so that they
+     * add up exactly. Floats passed in, e.g. to {@link #setValueFrom}, are rounded to that grid and
+     * lose precision past about 7 significant digits, so set large or precise configurations with
+     * the scaled setters. Change listeners still receive floats; read exact values with {@link
+     * #getScaledValues}.
+     *
+     * <p>Switching to fewer digits rounds the current configuration to the coarser grid, and the
+     * float getters report the rounded values. A step size that would round to 0 is rejected.
+     */
+    public void setDecimalDigits(int decimalDigits) {
+        if (decimalDigits < NO_DECIMAL_DIGITS || decimalDigits > MAX_DECIMAL_DIGITS) {
+            throw new IllegalArgumentException(
+                    String.format(EXCEPTION_ILLEGAL_DECIMAL_DIGITS, decimalDigits, MAX_DECIMAL_DIGITS));
+        }
+        if (this.decimalDigits == decimalDigits) {
+            return;
+        }
+        // Scaled values of the previous digits are converted exactly rather than through floats.
+        long previousScale = isFixedPoint() ? valueScale : 0;
+        long scale = 1;
+        for (int i = 0; i < decimalDigits; i++) {
+            scale *= 10;
+        }
+        long newStepSize = 0;
+        if (decimalDigits != NO_DECIMAL_DIGITS) {
+            newStepSize =
+                    previousScale > 0
+                            ? rescale(scaledStepSize, previousScale, scale)
+                            : Math.round(stepSize * (double) scale);
+            if (stepSize > 0.0f && newStepSize <= 0) {
+                throw new IllegalArgumentException(
+                        String.format(
+                                EXCEPTION_ILLEGAL_DECIMAL_STEP_SIZE,
+                                Float.toString(stepSize),
+                                decimalDigits));
+            }
+        }
+        this.decimalDigits = decimalDigits;
+        valueScale = scale;
+        if (isFixedPoint()) {
+            if (previousScale > 0) {
+                scaledValueFrom = rescale(scaledValueFrom, previousScale, scale);
+                scaledValueTo = rescale(scaledValueTo, previousScale, scale);
+            } else {
+                scaledValueFrom = toScaled(valueFrom);
+                scaledValueTo = toScaled(valueTo);
+            }
+            scaledStepSize = newStepSize;
+            // The floats mirror the rounded configuration, so the getters report what snapping uses.
+            valueFrom = fromScaled(scaledValueFrom);
+            valueTo = fromScaled(scaledValueTo);
+            stepSize = fromScaled(scaledStepSize);
+            if (scaledValues.length < valueCount) {
+                scaledValues = new long[values.length];
+            }
+            for (int i = 0; i < valueCount; i++) {
+                scaledValues[i] =
+                        previousScale > 0
+                                ? rescale(scaledValues[i], previousScale, scale)
+                                : toScaled(values[i]);
+                values[i] = fromScaled(scaledValues[i]);
+            }
+            if (allowedValues != null) {
+                for (int i = 0; i < allowedValues.length; i++) {
+                    allowedValues[i] = fromScaled(toScaled(allowedValues[i]));
+                }
+            }
+        }
+        dirtyConfig = true;
+        activeRangeDirty = true;
+        thumbPositionsDirty = true;
+        postInvalidate();
+    }
+
+    @NonNull
+    public float[] getValues(@Nullable float[] out) {
+        if (out == null || out.length < valueCount) {
+            out = new float[valueCount];
+        }
+        System.arraycopy(values, 0, out, 0, valueCount);
+        return out;
     }
 
     void setValues(@NonNull Float... values) {
-        ArrayList<Float> list = new ArrayList<>();
-        Collections.addAll(list, values);
-        setValuesInternal(list);
+        float[] array = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            array[i] = values[i];
+        }
+        setValuesInternal(array);
     }
 
     void setValues(@NonNull List<Float> values) {
-        setValuesInternal(new ArrayList<>(values));
+        float[] array = new float[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        setValuesInternal(array);
+    }
+
+    void setValues(@NonNull float[] values) {
+        setValuesInternal(Arrays.copyOf(values, values.length));
+    }
+
+    void setScaledValues(@NonNull long[] scaledValues) {
+        checkFixedPoint();
+        setScaledValuesInternal(Arrays.copyOf(scaledValues, scaledValues.length));
     }
 
-    private void setValuesInternal(@NonNull ArrayList<Float> values) {
-        if (values.isEmpty()) {
+    private void setValuesInternal(@NonNull float[] values) {
+        if (values.length == 0) {
             throw new IllegalArgumentException("At least one value must be set");
         }
+        if (isFixedPoint()) {
+            long[] scaled = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                scaled[i] = toScaled(values[i]);
+            }
+            setScaledValuesInternal(scaled);
+            return;
+        }
 
-        Collections.sort(values);
+        dispatchPendingUserChanges();
 
-        if (this.values.size() == values.size()) {
-            if (this.values.equals(values)) {
-                return;
-            }
+        Arrays.sort(values);
+
+        if (valueCount == values.length && rangeEquals(this.values, values, valueCount)) {
+            return;
         }
 
-        this.values = values;
+        if (this.values.length < values.length) {
+            this.values = new float[values.length];
+        }
+        System.arraycopy(values, 0, this.values, 0, values.length);
+        valueCount = values.length;
+        onValuesReplaced();
+    }
+
+    private void setScaledValuesInternal(@NonNull long[] scaledValues) {
+        if (scaledValues.length == 0) {
+            throw new IllegalArgumentException("At least one value must be set");
+        }
+
+        dispatchPendingUserChanges();
+
+        Arrays.sort(scaledValues);
+
+        if (valueCount == scaledValues.length
+                && rangeEquals(this.scaledValues, scaledValues, valueCount)) {
+            return;
+        }
+
+        if (this.values.length < scaledValues.length) {
+            this.values = new float[scaledValues.length];
+        }
+        if (this.scaledValues.length < scaledValues.length) {
+            this.scaledValues = new long[this.values.length];
+        }
+        for (int i = 0; i < scaledValues.length; i++) {
+            this.scaledValues[i] = scaledValues[i];
+            this.values[i] = fromScaled(scaledValues[i]);
+        }
+        valueCount = scaledValues.length;
+        onValuesReplaced();
+    }
+
+    private void onValuesReplaced() {
         dirtyConfig = true;
+        activeRangeDirty = true;
+        thumbPositionsDirty = true;
 
         focusedThumbIdx = 0;
         updateHaloHotspot();
@@ -480,6 +988,24 @@ abstract class BaseSlider<
     }
 
 
+    private static boolean rangeEquals(long[] a, long[] b, int count) {
+        for (int i = 0; i < count; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean rangeEquals(float[] a, float[] b, int count) {
+        for (int i = 0; i < count; i++) {
+            if (compare(a[i], b[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public float getStepSize() {
         return stepSize;
     }
@@ -495,6 +1021,194 @@ abstract class BaseSlider<
         }
         if (this.stepSize != stepSize) {
             this.stepSize = stepSize;
+            scaledStepSize = toScaled(stepSize);
+            dirtyConfig = true;
+            postInvalidate();
+        }
+    }
+
+    public long getScaledStepSize() {
+        return isFixedPoint() ? scaledStepSize : toScaled(stepSize);
+    }
+
+    /**
+     * Sets the step size in units of {@code 10^-decimalDigits}, without the rounding a float step
+     * goes through. Requires decimal digits to be set.
+     */
+    public void setScaledStepSize(long scaledStepSize) {
+        checkFixedPoint();
+        if (scaledStepSize < 0) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            EXCEPTION_ILLEGAL_STEP_SIZE,
+                            Long.toString(scaledStepSize),
+                            Long.toString(scaledValueFrom),
+                            Long.toString(scaledValueTo)));
+        }
+        if (this.scaledStepSize != scaledStepSize) {
+            this.scaledStepSize = scaledStepSize;
+            stepSize = fromScaled(scaledStepSize);
+            dirtyConfig = true;
+            postInvalidate();
+        }
+    }
+
+    /**
+     * Replaces the range, step size and values in one go, e.g. when a pooled slider is bound to new
+     * data. The configuration is validated once, no change listener is notified and at most one
+     * redraw is scheduled. Allowed values and decimal digits are kept. An invalid configuration
+     * throws an {@link IllegalArgumentException} and leaves the slider as it was.
+     */
+    void rebind(float valueFrom, float valueTo, float stepSize, @NonNull float[] values) {
+        validateRebind(valueFrom, valueTo, stepSize, values);
+
+        dispatchPendingUserChanges();
+
+        this.valueFrom = valueFrom;
+        this.valueTo = valueTo;
+        this.stepSize = stepSize;
+        scaledValueFrom = toScaled(valueFrom);
+        scaledValueTo = toScaled(valueTo);
+        scaledStepSize = toScaled(stepSize);
+
+        int count = values.length;
+        if (this.values.length < count) {
+            this.values = new float[count];
+        }
+        if (isFixedPoint()) {
+            if (scaledValues.length < count) {
+                scaledValues = new long[this.values.length];
+            }
+            for (int i = 0; i < count; i++) {
+                scaledValues[i] = toScaled(values[i]);
+            }
+            Arrays.sort(scaledValues, 0, count);
+            for (int i = 0; i < count; i++) {
+                this.values[i] = fromScaled(scaledValues[i]);
+            }
+        } else {
+            System.arraycopy(values, 0, this.values, 0, count);
+            Arrays.sort(this.values, 0, count);
+        }
+        valueCount = count;
+
+        focusedThumbIdx = 0;
+        activeThumbIdx = -1;
+        predictedThumbValue = Float.NaN;
+        dirtyConfig = true;
+        activeRangeDirty = true;
+        thumbPositionsDirty = true;
+        validateConfigurationIfDirty();
+
+        // onDraw only recomputes ticks while the configuration is dirty, so refresh them now.
+        if (ViewCompat.isLaidOut(this)) {
+            maybeCalculateTicksCoordinates();
+        }
+        invalidateTrackNode();
+        updateHaloHotspot();
+        postInvalidate();
+    }
+
+    private void validateRebind(
+            float valueFrom, float valueTo, float stepSize, @NonNull float[] values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("At least one value must be set");
+        }
+        boolean fixedPoint = isFixedPoint();
+        long scaledFrom = toScaled(valueFrom);
+        long scaledTo = toScaled(valueTo);
+        long scaledStep = toScaled(stepSize);
+        if (fixedPoint ? scaledFrom >= scaledTo : valueFrom >= valueTo) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            EXCEPTION_ILLEGAL_VALUE_FROM, Float.toString(valueFrom), Float.toString(valueTo)));
+        }
+
+        float[] allowed = allowedValues;
+        if (allowed != null) {
+            float first = allowed[0];
+            float last = allowed[allowed.length - 1];
+            if (first < valueFrom || last > valueTo) {
+                throw new IllegalArgumentException(
+                        String.format(
+                                EXCEPTION_ILLEGAL_ALLOWED_VALUE,
+                                Float.toString(first < valueFrom ? first : last),
+                                Float.toString(valueFrom),
+                                Float.toString(valueTo)));
+            }
+        }
+
+        boolean stepped = allowed == null && stepSize > 0.0f;
+        double decimalFrom = toDecimal(valueFrom);
+        double decimalStep = toDecimal(stepSize);
+        if (stepSize < 0.0f
+                || (stepped
+                        && (fixedPoint
+                                ? scaledStep <= 0 || (scaledTo - scaledFrom) % scaledStep != 0
+                                : !landsOnTick(toDecimal(valueTo), decimalFrom, decimalStep)))) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            EXCEPTION_ILLEGAL_STEP_SIZE,
+                            Float.toString(stepSize),
+                            Float.toString(valueFrom),
+                            Float.toString(valueTo)));
+        }
+
+        for (float value : values) {
+            long scaled = toScaled(value);
+            if (allowed != null) {
+                if (Arrays.binarySearch(allowed, fixedPoint ? fromScaled(scaled) : value) < 0) {
+                    throw new IllegalArgumentException(
+                            String.format(EXCEPTION_ILLEGAL_NOT_ALLOWED_VALUE, Float.toString(value)));
+                }
+                continue;
+            }
+            if (fixedPoint
+                    ? scaled < scaledFrom || scaled > scaledTo
+                    : value < valueFrom || value > valueTo) {
+                throw new IllegalArgumentException(
+                        String.format(
+                                EXCEPTION_ILLEGAL_VALUE,
+                                Float.toString(value),
+                                Float.toString(valueFrom),
+                                Float.toString(valueTo)));
+            }
+            if (stepped
+                    && (fixedPoint
+                            ? (scaled - scaledFrom) % scaledStep != 0
+                            : !landsOnTick(toDecimal(value), decimalFrom, decimalStep))) {
+                throw new IllegalArgumentException(
+                        String.format(
+                                EXCEPTION_ILLEGAL_DISCRETE_VALUE,
+                                Float.toString(value),
+                                Float.toString(valueFrom),
+                                Float.toString(stepSize),
+                                Float.toString(stepSize)));
+            }
+        }
+    }
+
+    @Nullable
+    public float[] getAllowedValues() {
+        return allowedValues == null ? null : allowedValues.clone();
+    }
+
+    public void setAllowedValues(@Nullable float[] allowedValues) {
+        if (allowedValues != null) {
+            if (allowedValues.length == 0) {
+                throw new IllegalArgumentException("At least one allowed value must be set");
+            }
+            allowedValues = allowedValues.clone();
+            Arrays.sort(allowedValues);
+            if (isFixedPoint()) {
+                for (int i = 0; i < allowedValues.length; i++) {
+                    allowedValues[i] = fromScaled(toScaled(allowedValues[i]));
+                }
+            }
+        }
+        if (!Arrays.equals(this.allowedValues, allowedValues)) {
+            this.allowedValues = allowedValues;
+            ticksCoordinates = null;
             dirtyConfig = true;
             postInvalidate();
         }
@@ -505,7 +1219,7 @@ abstract class BaseSlider<
     }
 
     public void setFocusedThumbIndex(int index) {
-        if (index < 0 || index >= values.size()) {
+        if (index < 0 || index >= valueCount) {
             throw new IllegalArgumentException("index out of range");
         }
         focusedThumbIdx = index;
@@ -533,6 +1247,18 @@ abstract class BaseSlider<
         changeListeners.clear();
     }
 
+    void addOnValuesChangeListener(@NonNull BaseOnValuesChangeListener<S> listener) {
+        valuesChangeListeners.add(listener);
+    }
+
+    void removeOnValuesChangeListener(@NonNull BaseOnValuesChangeListener<S> listener) {
+        valuesChangeListeners.remove(listener);
+    }
+
+    void clearOnValuesChangeListeners() {
+        valuesChangeListeners.clear();
+    }
+
     public void addOnSliderTouchListener(@NonNull T listener) {
         touchListeners.add(listener);
     }
@@ -551,6 +1277,7 @@ abstract class BaseSlider<
 
     public void setThumbElevation(float elevation) {
         thumbDrawable.setElevation(elevation);
+        invalidateThumbRendering();
     }
 
     public void setThumbElevationResource(@DimenRes int elevation) {
@@ -573,6 +1300,7 @@ abstract class BaseSlider<
         thumbDrawable.setShapeAppearanceModel(
                 ShapeAppearanceModel.builder().setAllCorners(thumbRadius).build());
         thumbDrawable.setBounds(0, 0, thumbRadius * 2, thumbRadius * 2);
+        invalidateThumbRendering();
 
         postInvalidate();
     }
@@ -583,6 +1311,7 @@ abstract class BaseSlider<
 
     public void setThumbStrokeColor(@Nullable ColorStateList thumbStrokeColor) {
         thumbDrawable.setStrokeColor(thumbStrokeColor);
+        invalidateThumbRendering();
         postInvalidate();
     }
 
@@ -599,6 +1328,7 @@ abstract class BaseSlider<
 
     public void setThumbStrokeWidth(float thumbStrokeWidth) {
         thumbDrawable.setStrokeWidth(thumbStrokeWidth);
+        invalidateThumbRendering();
         postInvalidate();
     }
 
@@ -664,30 +1394,185 @@ abstract class BaseSlider<
         return haloColor;
     }
 
-    public void setHaloTintList(@NonNull ColorStateList haloColor) {
-        if (haloColor.equals(this.haloColor)) {
-            return;
+    public void setHaloTintList(@NonNull ColorStateList haloColor) {
+        if (haloColor.equals(this.haloColor)) {
+            return;
+        }
+
+        this.haloColor = haloColor;
+        Drawable background = getBackground();
+        if (!shouldDrawCompatHalo() && background instanceof RippleDrawable) {
+            ((RippleDrawable) background).setColor(haloColor);
+            return;
+        }
+
+        haloPaint.setColor(getColorForState(haloColor));
+        haloPaint.setAlpha(HALO_ALPHA);
+        invalidate();
+    }
+
+    @NonNull
+    public ColorStateList getThumbTintList() {
+        return thumbDrawable.getFillColor();
+    }
+
+    public void setThumbTintList(@NonNull ColorStateList thumbColor) {
+        thumbDrawable.setFillColor(thumbColor);
+        invalidateThumbRendering();
+    }
+
+    private void invalidateThumbRendering() {
+        thumbSprites.invalidate();
+        invalidateThumbNode();
+    }
+
+    private void invalidateThumbNode() {
+        if (VERSION.SDK_INT >= VERSION_CODES.Q && renderNodes != null) {
+            renderNodes.invalidateThumb();
+        }
+    }
+
+    private void invalidateTrackNode() {
+        if (VERSION.SDK_INT >= VERSION_CODES.Q && renderNodes != null) {
+            renderNodes.invalidateTrack();
+        }
+    }
+
+    private void discardRenderNodes() {
+        if (VERSION.SDK_INT >= VERSION_CODES.Q && renderNodes != null) {
+            renderNodes.discard();
+        }
+    }
+
+    public boolean isRenderNodesEnabled() {
+        return renderNodesEnabled;
+    }
+
+    /**
+     * While enabled on a hardware accelerated canvas, thumbs and, when the active track and ticks
+     * are opaque, the inactive track are drawn from recorded render nodes that are only recorded
+     * again when they change.
+     */
+    public void setRenderNodesEnabled(boolean enabled) {
+        if (renderNodesEnabled != enabled) {
+            renderNodesEnabled = enabled;
+            if (!enabled) {
+                discardRenderNodes();
+                renderNodes = null;
+            }
+            postInvalidate();
+        }
+    }
+
+    public boolean isHistoricalTouchSamplesEnabled() {
+        return historicalTouchSamplesEnabled;
+    }
+
+    /**
+     * While enabled, every touch sample batched into a move event is snapped in turn, but change
+     * listeners and accessibility hear about the net change of the dragged thumb only once per
+     * event.
+     */
+    public void setHistoricalTouchSamplesEnabled(boolean enabled) {
+        historicalTouchSamplesEnabled = enabled;
+    }
+
+    public boolean isLowLatencyEnabled() {
+        return lowLatencyEnabled;
+    }
+
+    /**
+     * While enabled, drags request unbuffered input and the dragged thumb, together with the end of
+     * the active track, is drawn at the position predicted by a {@link TouchPredictor}. Listeners
+     * still receive the snapped touch value.
+     */
+    public void setLowLatencyEnabled(boolean enabled) {
+        if (lowLatencyEnabled != enabled) {
+            lowLatencyEnabled = enabled;
+            if (enabled && touchPredictor == null) {
+                touchPredictor = new TouchPredictor();
+            }
+            if (!enabled && !Float.isNaN(predictedThumbValue)) {
+                predictedThumbValue = Float.NaN;
+                activeRangeDirty = true;
+                postInvalidate();
+            }
+        }
+    }
+
+    @RequiresApi(VERSION_CODES.Q)
+    @Nullable
+    private SliderRenderNodes getRenderNodes(@NonNull Canvas canvas) {
+        if (!renderNodesEnabled || !canvas.isHardwareAccelerated()) {
+            return null;
         }
-
-        this.haloColor = haloColor;
-        Drawable background = getBackground();
-        if (!shouldDrawCompatHalo() && background instanceof RippleDrawable) {
-            ((RippleDrawable) background).setColor(haloColor);
-            return;
+        if (renderNodes == null) {
+            renderNodes = new SliderRenderNodes();
         }
+        return renderNodes;
+    }
 
-        haloPaint.setColor(getColorForState(haloColor));
-        haloPaint.setAlpha(HALO_ALPHA);
-        invalidate();
+    public boolean isThumbSpritesEnabled() {
+        return thumbSpritesEnabled;
     }
 
-    @NonNull
-    public ColorStateList getThumbTintList() {
-        return thumbDrawable.getFillColor();
+    public void setThumbSpritesEnabled(boolean enabled) {
+        if (thumbSpritesEnabled != enabled) {
+            thumbSpritesEnabled = enabled;
+            thumbSprites.invalidate();
+            postInvalidate();
+        }
     }
 
-    public void setThumbTintList(@NonNull ColorStateList thumbColor) {
-        thumbDrawable.setFillColor(thumbColor);
+    /**
+     * Returns the style dependent part of this slider's configuration, from which {@link
+     * SliderRenderResources#prefetch} can compute render resources off the UI thread.
+     */
+    @NonNull
+    public SliderRenderResources.Spec getRenderSpec() {
+        return new SliderRenderResources.Spec(
+                trackSidePadding,
+                trackTop,
+                trackHeight,
+                thumbRadius,
+                getThumbElevation(),
+                thumbDrawable.getShadowColor(),
+                isRtl());
+    }
+
+    private boolean matchesRenderSpec(@NonNull SliderRenderResources.Spec spec) {
+        return spec.matches(
+                trackSidePadding,
+                trackTop,
+                trackHeight,
+                thumbRadius,
+                getThumbElevation(),
+                thumbDrawable.getShadowColor(),
+                isRtl());
+    }
+
+    /**
+     * Uses prefetched render resources instead of computing them on the next draw. Resources that
+     * were computed for a different width or configuration are ignored. The thumb shadow is only
+     * adopted if it has the size and color the thumb would render; otherwise the thumb renders its
+     * own shadow on the next draw as usual.
+     */
+    public void setRenderResources(@Nullable SliderRenderResources resources) {
+        if (renderResources == resources) {
+            return;
+        }
+        renderResources = resources;
+        if (resources == null) {
+            return;
+        }
+        if (resources.thumbShadowLayer != null && matchesRenderSpec(resources.spec)) {
+            thumbDrawable.adoptShadowLayer(
+                    resources.thumbShadowLayer, resources.spec.thumbShadowColor);
+        }
+        if (isDiscrete() && ViewCompat.isLaidOut(this)) {
+            maybeCalculateTicksCoordinates();
+            postInvalidate();
+        }
     }
 
     @NonNull
@@ -798,18 +1683,42 @@ abstract class BaseSlider<
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
+        updateInScrollingContainer();
     }
 
 
     @Override
     protected void onDetachedFromWindow() {
+        dispatchPendingUserChanges();
+        inScrollingContainerValid = false;
+        lastTouchAction = -1;
         if (accessibilityEventSender != null) {
             removeCallbacks(accessibilityEventSender);
         }
+        discardRenderNodes();
 
         super.onDetachedFromWindow();
     }
 
+    @RequiresApi(VERSION_CODES.N)
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        // Ancestors may have been reconfigured while hidden, so look again on the next touch.
+        inScrollingContainerValid = false;
+    }
+
+
+    @Override
+    public void onRtlPropertiesChanged(int layoutDirection) {
+        super.onRtlPropertiesChanged(layoutDirection);
+        activeRangeDirty = true;
+        thumbPositionsDirty = true;
+        if (allowedValues != null) {
+            ticksCoordinates = null;
+            dirtyConfig = true;
+        }
+    }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
@@ -820,29 +1729,58 @@ abstract class BaseSlider<
 
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        activeRangeDirty = true;
+        thumbPositionsDirty = true;
         updateTrackWidth(w);
         updateHaloHotspot();
     }
 
     private void maybeCalculateTicksCoordinates() {
-        if (stepSize <= 0.0f) {
+        if (!isDiscrete()) {
             return;
         }
 
         validateConfigurationIfDirty();
 
-        int tickCount = (int) ((valueTo - valueFrom) / stepSize + 1);
+        ticksCoordinates = calculateTicksCoordinates();
+        // The coordinates are refilled in place, so a recorded track can't tell they changed.
+        invalidateTrackNode();
+    }
 
-        tickCount = Math.min(tickCount, trackWidth / (trackHeight * 2) + 1);
-        if (ticksCoordinates == null || ticksCoordinates.length != tickCount * 2) {
-            ticksCoordinates = new float[tickCount * 2];
+    @NonNull
+    private float[] calculateTicksCoordinates() {
+        if (renderResources != null && matchesRenderSpec(renderResources.spec)) {
+            float[] prefetched =
+                    renderResources.getTicksCoordinates(
+                            getWidth(), valueFrom, valueTo, stepSize, allowedValues, getTickCount());
+            if (prefetched != null) {
+                ticksCoordinatesShared = true;
+                return prefetched;
+            }
         }
 
-        float interval = trackWidth / (float) (tickCount - 1);
-        for (int i = 0; i < tickCount * 2; i += 2) {
-            ticksCoordinates[i] = trackSidePadding + i / 2 * interval;
-            ticksCoordinates[i + 1] = calculateTop();
+        // Prefetched coordinates belong to the render resources, so they are never refilled.
+        float[] out = ticksCoordinatesShared ? null : ticksCoordinates;
+        ticksCoordinatesShared = false;
+        if (allowedValues != null) {
+            return SliderRenderResources.calculateAllowedTicksCoordinates(
+                    out,
+                    allowedValues,
+                    valueFrom,
+                    valueTo,
+                    isRtl(),
+                    trackWidth,
+                    trackSidePadding,
+                    calculateTop());
         }
+
+        return SliderRenderResources.calculateTicksCoordinates(
+                out,
+                getTickCount() + 1,
+                trackWidth,
+                trackHeight,
+                trackSidePadding,
+                calculateTop());
     }
 
     private void updateTrackWidth(int width) {
@@ -858,7 +1796,7 @@ abstract class BaseSlider<
         if (!shouldDrawCompatHalo() && getMeasuredWidth() > 0) {
             final Drawable background = getBackground();
             if (background instanceof RippleDrawable) {
-                int x = (int) (normalizeValue(values.get(focusedThumbIdx)) * trackWidth + trackSidePadding);
+                int x = (int) (normalizeValue(values[focusedThumbIdx]) * trackWidth + trackSidePadding);
                 int y = calculateTop();
                 DrawableCompat.setHotspotBounds(
                         background, x - haloRadius, y - haloRadius, x + haloRadius, y + haloRadius);
@@ -882,29 +1820,50 @@ abstract class BaseSlider<
         super.onDraw(canvas);
 
         int top = calculateTop();
+        SliderRenderNodes renderNodes =
+                VERSION.SDK_INT >= VERSION_CODES.Q ? getRenderNodes(canvas) : null;
+        boolean recordTrack = renderNodes != null && hasOpaqueActiveParts();
 
-        drawInactiveTrack(canvas, trackWidth, top);
-        if (Collections.max(getValues()) > valueFrom) {
+        if (VERSION.SDK_INT >= VERSION_CODES.Q && recordTrack) {
+            drawTrackNode(renderNodes, canvas, top);
+        } else {
+            drawInactiveTrack(canvas, trackWidth, top);
+        }
+        if (values[valueCount - 1] > valueFrom) {
             drawActiveTrack(canvas, trackWidth, top);
         }
 
-        maybeDrawTicks(canvas);
+        maybeDrawTicks(canvas, !recordTrack);
 
         if ((thumbIsPressed || isFocused()) && isEnabled()) {
             maybeDrawHalo(canvas, trackWidth, top);
         }
 
-        drawThumbs(canvas, trackWidth, top);
+        if (VERSION.SDK_INT >= VERSION_CODES.Q && renderNodes != null && isEnabled()) {
+            drawThumbNodes(renderNodes, canvas, trackWidth, top);
+        } else {
+            drawThumbs(canvas, trackWidth, top);
+        }
     }
 
-    private float[] getActiveRange() {
-        float max = Collections.max(getValues());
-        float min = Collections.min(getValues());
-        float left = normalizeValue(values.size() == 1 ? valueFrom : min);
-        float right = normalizeValue(max);
-
+    // The recorded inactive track also runs under the active range, which the software path leaves
+    // out. The two only look the same when the active parts drawn over it are opaque.
+    private boolean hasOpaqueActiveParts() {
+        return activeTrackPaint.getAlpha() == 0xFF
+                && (!tickVisible || !isDiscrete() || activeTicksPaint.getAlpha() == 0xFF);
+    }
 
-        return isRtl() ? new float[]{right, left} : new float[]{left, right};
+    private float[] getActiveRange() {
+        if (activeRangeDirty) {
+            // The track follows the thumbs where they are drawn, predicted or not.
+            float left = normalizeValue(valueCount == 1 ? valueFrom : getThumbDrawValue(0));
+            float right = normalizeValue(getThumbDrawValue(valueCount - 1));
+            boolean rtl = isRtl();
+            activeRange[0] = rtl ? right : left;
+            activeRange[1] = rtl ? left : right;
+            activeRangeDirty = false;
+        }
+        return activeRange;
     }
 
     private void drawInactiveTrack(@NonNull Canvas canvas, int width, int top) {
@@ -936,17 +1895,28 @@ abstract class BaseSlider<
         canvas.drawLine(left, top, right, top, activeTrackPaint);
     }
 
-    private void maybeDrawTicks(@NonNull Canvas canvas) {
-        if (!tickVisible || stepSize <= 0.0f) {
+    private void maybeDrawTicks(@NonNull Canvas canvas, boolean drawInactive) {
+        if (!tickVisible || !isDiscrete()) {
             return;
         }
 
         float[] activeRange = getActiveRange();
-        int leftPivotIndex = pivotIndex(ticksCoordinates, activeRange[0]);
-        int rightPivotIndex = pivotIndex(ticksCoordinates, activeRange[1]);
+        int leftPivotIndex;
+        int rightPivotIndex;
+        if (allowedValues != null) {
+            float left = trackSidePadding + activeRange[0] * trackWidth;
+            float right = trackSidePadding + activeRange[1] * trackWidth;
+            leftPivotIndex = tickIndexAtX(ticksCoordinates, left - .5f);
+            rightPivotIndex = tickIndexAtX(ticksCoordinates, right + .5f);
+        } else {
+            leftPivotIndex = pivotIndex(ticksCoordinates, activeRange[0]);
+            rightPivotIndex = pivotIndex(ticksCoordinates, activeRange[1]);
+        }
 
 
-        canvas.drawPoints(ticksCoordinates, 0, leftPivotIndex * 2, inactiveTicksPaint);
+        if (drawInactive) {
+            canvas.drawPoints(ticksCoordinates, 0, leftPivotIndex * 2, inactiveTicksPaint);
+        }
 
 
         canvas.drawPoints(
@@ -956,37 +1926,87 @@ abstract class BaseSlider<
                 activeTicksPaint);
 
 
-        canvas.drawPoints(
-                ticksCoordinates,
-                rightPivotIndex * 2,
-                ticksCoordinates.length - rightPivotIndex * 2,
-                inactiveTicksPaint);
+        if (drawInactive) {
+            canvas.drawPoints(
+                    ticksCoordinates,
+                    rightPivotIndex * 2,
+                    ticksCoordinates.length - rightPivotIndex * 2,
+                    inactiveTicksPaint);
+        }
     }
 
     private void drawThumbs(@NonNull Canvas canvas, int width, int top) {
 
 
         if (!isEnabled()) {
-            for (Float value : values) {
+            for (int i = 0; i < valueCount; i++) {
                 canvas.drawCircle(
-                        trackSidePadding + normalizeValue(value) * width, top, thumbRadius, thumbPaint);
+                        trackSidePadding + normalizeValue(values[i]) * width, top, thumbRadius, thumbPaint);
             }
         }
 
-        for (Float value : values) {
+        if (thumbSpritesEnabled) {
+            drawThumbSprites(canvas, width, top);
+            return;
+        }
+
+        for (int i = 0; i < valueCount; i++) {
             canvas.save();
             canvas.translate(
-                    trackSidePadding + (int) (normalizeValue(value) * width) - thumbRadius,
+                    trackSidePadding + (int) (normalizeValue(getThumbDrawValue(i)) * width) - thumbRadius,
                     top - thumbRadius);
             thumbDrawable.draw(canvas);
             canvas.restore();
         }
     }
 
+    @RequiresApi(VERSION_CODES.Q)
+    private void drawTrackNode(
+            @NonNull SliderRenderNodes renderNodes, @NonNull Canvas canvas, int top) {
+        // The full inactive track and all ticks are recorded once; the active parts are drawn over
+        // them.
+        renderNodes.drawTrack(
+                canvas,
+                getWidth(),
+                getHeight(),
+                inactiveTrackPaint,
+                trackSidePadding,
+                trackSidePadding + trackWidth,
+                top,
+                tickVisible && isDiscrete() ? ticksCoordinates : null,
+                inactiveTicksPaint);
+    }
+
+    @RequiresApi(VERSION_CODES.Q)
+    private void drawThumbNodes(
+            @NonNull SliderRenderNodes renderNodes, @NonNull Canvas canvas, int width, int top) {
+        renderNodes.prepareThumbs(thumbDrawable, valueCount);
+        for (int i = 0; i < valueCount; i++) {
+            renderNodes.drawThumb(
+                    canvas,
+                    i,
+                    trackSidePadding + (int) (normalizeValue(getThumbDrawValue(i)) * width) - thumbRadius,
+                    top - thumbRadius);
+        }
+    }
+
+    private void drawThumbSprites(@NonNull Canvas canvas, int width, int top) {
+        Bitmap sprite = thumbSprites.getSprite(getResources().getDisplayMetrics().density);
+        int offset = thumbRadius + thumbSprites.getPadding();
+        for (int i = 0; i < valueCount; i++) {
+            canvas.drawBitmap(
+                    sprite,
+                    trackSidePadding + (int) (normalizeValue(getThumbDrawValue(i)) * width) - offset,
+                    top - offset,
+                    null);
+        }
+    }
+
     private void maybeDrawHalo(@NonNull Canvas canvas, int width, int top) {
 
         if (shouldDrawCompatHalo()) {
-            int centerX = (int) (trackSidePadding + normalizeValue(values.get(focusedThumbIdx)) * width);
+            int centerX =
+                    (int) (trackSidePadding + normalizeValue(getThumbDrawValue(focusedThumbIdx)) * width);
             if (VERSION.SDK_INT < VERSION_CODES.P) {
 
                 canvas.clipRect(
@@ -1012,9 +2032,7 @@ abstract class BaseSlider<
             return false;
         }
         float x = event.getX();
-        touchPosition = (x - trackSidePadding) / trackWidth;
-        touchPosition = Math.max(0, touchPosition);
-        touchPosition = Math.min(1, touchPosition);
+        updateTouchPosition(x);
 
         switch (event.getActionMasked()) {
             case MotionEvent.ACTION_DOWN:
@@ -1026,6 +2044,13 @@ abstract class BaseSlider<
                 }
 
                 getParent().requestDisallowInterceptTouchEvent(true);
+                if (lowLatencyEnabled) {
+                    if (VERSION.SDK_INT >= VERSION_CODES.LOLLIPOP) {
+                        requestUnbufferedDispatch(event);
+                    }
+                    touchPredictor.reset();
+                    touchPredictor.addSample(event.getEventTime(), x);
+                }
 
                 if (!pickActiveThumb()) {
 
@@ -1034,9 +2059,11 @@ abstract class BaseSlider<
 
                 requestFocus();
                 thumbIsPressed = true;
+                includeThumbInDirtyRegion(focusedThumbIdx);
                 snapTouchPosition();
+                includeThumbInDirtyRegion(activeThumbIdx);
                 updateHaloHotspot();
-                invalidate();
+                invalidateDirtyRegion();
                 onStartTrackingTouch();
                 break;
             case MotionEvent.ACTION_MOVE:
@@ -1054,18 +2081,30 @@ abstract class BaseSlider<
                     break;
                 }
 
+                if (!thumbIsPressed) {
+                    includeThumbInDirtyRegion(focusedThumbIdx);
+                    includeThumbInDirtyRegion(activeThumbIdx);
+                }
                 thumbIsPressed = true;
-                snapTouchPosition();
+                if (historicalTouchSamplesEnabled && event.getHistorySize() > 0) {
+                    snapHistoricalTouchPositions(event);
+                } else {
+                    snapTouchPosition();
+                }
+                if (lowLatencyEnabled) {
+                    updatePredictedThumbValue(event);
+                }
                 updateHaloHotspot();
-                invalidate();
+                invalidateDirtyRegion();
                 break;
             case MotionEvent.ACTION_UP:
                 thumbIsPressed = false;
+                includeThumbInDirtyRegion(focusedThumbIdx);
+                clearPredictedThumbValue();
 
-                if (lastEvent != null
-                        && lastEvent.getActionMasked() == MotionEvent.ACTION_DOWN
-                        && abs(lastEvent.getX() - event.getX()) <= scaledTouchSlop
-                        && abs(lastEvent.getY() - event.getY()) <= scaledTouchSlop) {
+                if (lastTouchAction == MotionEvent.ACTION_DOWN
+                        && abs(lastTouchX - x) <= scaledTouchSlop
+                        && abs(lastTouchY - event.getY()) <= scaledTouchSlop) {
                     pickActiveThumb();
                 }
 
@@ -1073,8 +2112,15 @@ abstract class BaseSlider<
                     snapTouchPosition();
                     activeThumbIdx = -1;
                 }
+                dispatchPendingUserChanges();
                 onStopTrackingTouch();
-                invalidate();
+                invalidateDirtyRegion();
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                if (!Float.isNaN(predictedThumbValue)) {
+                    clearPredictedThumbValue();
+                    invalidateDirtyRegion();
+                }
                 break;
             default:
 
@@ -1083,7 +2129,9 @@ abstract class BaseSlider<
 
         setPressed(thumbIsPressed);
 
-        lastEvent = MotionEvent.obtain(event);
+        lastTouchAction = event.getActionMasked();
+        lastTouchX = x;
+        lastTouchY = event.getY();
         return true;
     }
 
@@ -1091,10 +2139,24 @@ abstract class BaseSlider<
         return Math.round(position * (coordinates.length / 2 - 1));
     }
 
+    private static int tickIndexAtX(float[] coordinates, float x) {
+        int low = 0;
+        int high = coordinates.length / 2;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (coordinates[mid * 2] < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     private double snapPosition(float position) {
-        if (stepSize > 0.0f) {
-            int stepCount = (int) ((valueTo - valueFrom) / stepSize);
-            return Math.round(position * stepCount) / (double) stepCount;
+        if (allowedValues == null && stepSize > 0.0f) {
+            long stepCount = getTickCount();
+            return Math.round(position * (double) stepCount) / (double) stepCount;
         }
 
         return position;
@@ -1107,36 +2169,50 @@ abstract class BaseSlider<
         }
 
         float touchValue = getValueOfTouchPositionAbsolute();
-        float touchX = valueToX(touchValue);
-        activeThumbIdx = 0;
-        float activeThumbDiff = abs(values.get(activeThumbIdx) - touchValue);
-        for (int i = 1; i < values.size(); i++) {
-            float valueDiff = abs(values.get(i) - touchValue);
-            float valueX = valueToX(values.get(i));
-            if (compare(valueDiff, activeThumbDiff) > 1) {
-                break;
+
+        // Values are sorted, so the closest thumbs sit on either side of the insertion point.
+        int low = 0;
+        int high = valueCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < touchValue) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
+        }
+        float belowDiff = low > 0 ? abs(values[low - 1] - touchValue) : Float.MAX_VALUE;
+        float aboveDiff = low < valueCount ? abs(values[low] - touchValue) : Float.MAX_VALUE;
+        float activeThumbDiff = Math.min(belowDiff, aboveDiff);
 
-            boolean movingForward = isRtl() ? (valueX - touchX) > 0 : (valueX - touchX) < 0;
+        int first = low;
+        while (first > 0 && compare(abs(values[first - 1] - touchValue), activeThumbDiff) == 0) {
+            first--;
+        }
+        int last = low - 1;
+        while (last + 1 < valueCount
+                && compare(abs(values[last + 1] - touchValue), activeThumbDiff) == 0) {
+            last++;
+        }
 
+        activeThumbIdx = first;
+        if (first == last) {
+            return true;
+        }
 
-            if (compare(valueDiff, activeThumbDiff) < 0) {
-                activeThumbDiff = valueDiff;
-                activeThumbIdx = i;
-                continue;
+        // Thumbs at the same distance are resolved in index order, as the linear scan did.
+        boolean rtl = isRtl();
+        float touchX = valueToX(touchValue);
+        for (int i = first + 1; i <= last; i++) {
+            float valueX = valueToX(values[i]);
+            if (abs(valueX - touchX) < scaledTouchSlop) {
+                activeThumbIdx = -1;
+                return false;
             }
 
-            if (compare(valueDiff, activeThumbDiff) == 0) {
-
-                if (abs(valueX - touchX) < scaledTouchSlop) {
-                    activeThumbIdx = -1;
-                    return false;
-                }
-
-                if (movingForward) {
-                    activeThumbDiff = valueDiff;
-                    activeThumbIdx = i;
-                }
+            boolean movingForward = rtl ? (valueX - touchX) > 0 : (valueX - touchX) < 0;
+            if (movingForward) {
+                activeThumbIdx = i;
             }
         }
 
@@ -1151,6 +2227,68 @@ abstract class BaseSlider<
         return (position * (valueTo - valueFrom) + valueFrom);
     }
 
+    private void updateTouchPosition(float x) {
+        touchPosition = (x - trackSidePadding) / trackWidth;
+        touchPosition = Math.max(0, touchPosition);
+        touchPosition = Math.min(1, touchPosition);
+    }
+
+    private void snapHistoricalTouchPositions(@NonNull MotionEvent event) {
+        int idx = activeThumbIdx;
+        float startValue = values[idx];
+
+        // Batched samples only move the thumb; listeners hear about the net change once.
+        foldingTouchSamples = true;
+        try {
+            for (int h = 0, size = event.getHistorySize(); h < size; h++) {
+                updateTouchPosition(event.getHistoricalX(h));
+                snapTouchPosition();
+            }
+            updateTouchPosition(event.getX());
+            snapTouchPosition();
+        } finally {
+            foldingTouchSamples = false;
+        }
+
+        if (compare(values[idx], startValue) != 0) {
+            dispatchOnChangedFromUser(idx);
+        }
+    }
+
+    private void updatePredictedThumbValue(@NonNull MotionEvent event) {
+        TouchPredictor predictor = touchPredictor;
+        for (int h = 0, size = event.getHistorySize(); h < size; h++) {
+            predictor.addSample(event.getHistoricalEventTime(h), event.getHistoricalX(h));
+        }
+        predictor.addSample(event.getEventTime(), event.getX());
+
+        float predictedX = predictor.predict(PREDICTION_HORIZON_MILLIS);
+        float position = (predictedX - trackSidePadding) / trackWidth;
+        float value = getValueOfTouchPosition(Math.max(0, Math.min(1, position)));
+        if (allowedValues != null) {
+            value = allowedValues[getNearestAllowedIndex(value)];
+        }
+
+        includeThumbInDirtyRegion(activeThumbIdx);
+        predictedThumbValue = getClampedValue(activeThumbIdx, value);
+        activeRangeDirty = true;
+        includeThumbInDirtyRegion(activeThumbIdx);
+    }
+
+    private void clearPredictedThumbValue() {
+        if (!Float.isNaN(predictedThumbValue)) {
+            includeThumbInDirtyRegion(activeThumbIdx);
+            predictedThumbValue = Float.NaN;
+            activeRangeDirty = true;
+        }
+    }
+
+    private float getThumbDrawValue(int idx) {
+        return idx == activeThumbIdx && !Float.isNaN(predictedThumbValue)
+                ? predictedThumbValue
+                : values[idx];
+    }
+
     private boolean snapTouchPosition() {
         return snapActiveThumbToValue(getValueOfTouchPosition());
     }
@@ -1160,32 +2298,122 @@ abstract class BaseSlider<
     }
 
     private boolean snapThumbToValue(int idx, float value) {
+        validateConfigurationIfDirty();
+        if (isDiscrete()) {
+            return snapThumbToTick(idx, getTickIndex(getClampedValue(idx, value)));
+        }
+
+        if (isFixedPoint()) {
+            long scaled = getClampedScaledValue(idx, toScaled(value));
+            if (scaled == scaledValues[idx]) {
+                return false;
+            }
+            scaledValues[idx] = scaled;
+            moveThumb(idx, fromScaled(scaled));
+            return true;
+        }
 
-        if (abs(value - values.get(idx)) < THRESHOLD) {
+        if (abs(value - values[idx]) < THRESHOLD) {
             return false;
         }
 
-        float newValue = getClampedValue(idx, value);
+        moveThumb(idx, getClampedValue(idx, value));
+        return true;
+    }
 
-        values.set(idx, newValue);
+    private void moveThumb(int idx, float value) {
+        includeThumbInDirtyRegion(idx);
+        includeThumbInDirtyRegion(focusedThumbIdx);
+        values[idx] = value;
+        activeRangeDirty = true;
+        thumbPositionsDirty = true;
         focusedThumbIdx = idx;
+        includeThumbInDirtyRegion(idx);
+
+        if (!foldingTouchSamples) {
+            dispatchOnChangedFromUser(idx);
+        }
+    }
 
-        dispatchOnChangedFromUser(idx);
+    private boolean snapThumbToTick(int idx, long tick) {
+        long lowerTick = idx - 1 < 0 ? 0 : valueTicks[idx - 1];
+        long upperTick = idx + 1 >= valueCount ? getTickCount() : valueTicks[idx + 1];
+        tick = Math.max(lowerTick, Math.min(tick, upperTick));
+        if (tick == valueTicks[idx]) {
+            return false;
+        }
+
+        valueTicks[idx] = tick;
+        if (isFixedPoint()) {
+            scaledValues[idx] = getScaledTickValue(tick);
+        }
+        moveThumb(idx, getTickValue(tick));
         return true;
     }
 
+    private void includeThumbInDirtyRegion(int idx) {
+        if (idx < 0 || idx >= valueCount) {
+            return;
+        }
+        float x = valueToX(values[idx]);
+        float drawX = valueToX(getThumbDrawValue(idx));
+        dirtyLeft = Math.min(dirtyLeft, Math.min(x, drawX));
+        dirtyRight = Math.max(dirtyRight, Math.max(x, drawX));
+    }
+
+    private void invalidateDirtyRegion() {
+        float left = dirtyLeft;
+        float right = dirtyRight;
+        dirtyLeft = Float.MAX_VALUE;
+        dirtyRight = -Float.MAX_VALUE;
+
+        // Anything that is not a plain thumb move (config changes, first layout) redraws everything.
+        if (dirtyConfig || trackWidth <= 0 || !ViewCompat.isLaidOut(this)) {
+            invalidate();
+            return;
+        }
+        if (left > right) {
+            return;
+        }
+
+        // The region between the old and the new thumb positions covers the affected track segment
+        // and ticks, the extent covers the thumb with its compat shadow and the halo.
+        int shadowExtent =
+                thumbDrawable.getShadowRadius()
+                        + max(abs(thumbDrawable.getShadowOffsetX()), abs(thumbDrawable.getShadowOffsetY()));
+        int extent = max(max(thumbRadius + shadowExtent, haloRadius), trackHeight) + 1;
+        int top = calculateTop();
+        invalidate(
+                (int) Math.floor(left) - extent,
+                top - extent,
+                (int) Math.ceil(right) + extent,
+                top + extent);
+    }
+
     private float getClampedValue(int idx, float value) {
-        float minSeparation = stepSize == 0 ? getMinSeparation() : 0;
+        float minSeparation = isDiscrete() ? 0 : getMinSeparation();
         minSeparation = separationUnit == UNIT_PX ? dimenToValue(minSeparation) : minSeparation;
         if (isRtl()) {
             minSeparation = -minSeparation;
         }
 
-        float upperBound = idx + 1 >= values.size() ? valueTo : values.get(idx + 1) - minSeparation;
-        float lowerBound = idx - 1 < 0 ? valueFrom : values.get(idx - 1) + minSeparation;
+        float upperBound = idx + 1 >= valueCount ? valueTo : values[idx + 1] - minSeparation;
+        float lowerBound = idx - 1 < 0 ? valueFrom : values[idx - 1] + minSeparation;
         return clamp(value, lowerBound, upperBound);
     }
 
+    private long getClampedScaledValue(int idx, long scaled) {
+        float minSeparation = isDiscrete() ? 0 : getMinSeparation();
+        minSeparation = separationUnit == UNIT_PX ? dimenToValue(minSeparation) : minSeparation;
+        long scaledSeparation = toScaled(isRtl() ? -minSeparation : minSeparation);
+
+        long upperBound =
+                idx + 1 >= valueCount ? scaledValueTo : scaledValues[idx + 1] - scaledSeparation;
+        long lowerBound =
+                idx - 1 < 0 ? scaledValueFrom : scaledValues[idx - 1] + scaledSeparation;
+        return clamp(scaled, lowerBound, upperBound);
+    }
+
     private float dimenToValue(float dimen) {
         if (dimen == 0) {
             return 0;
@@ -1202,7 +2430,11 @@ abstract class BaseSlider<
     }
 
     private float getValueOfTouchPosition() {
-        double position = snapPosition(touchPosition);
+        return getValueOfTouchPosition(touchPosition);
+    }
+
+    private float getValueOfTouchPosition(float normalizedPosition) {
+        double position = snapPosition(normalizedPosition);
 
 
         if (isRtl()) {
@@ -1223,30 +2455,142 @@ abstract class BaseSlider<
     }
 
     private boolean isInScrollingContainer() {
+        if (!inScrollingContainerValid) {
+            updateInScrollingContainer();
+        }
+        return inScrollingContainer;
+    }
+
+    // The parent chain only changes while detached, so the answer is refreshed on attach and
+    // whenever the visibility of this view or an ancestor changes.
+    private void updateInScrollingContainer() {
+        inScrollingContainer = false;
         ViewParent p = getParent();
         while (p instanceof ViewGroup) {
             if (((ViewGroup) p).shouldDelayChildPressedState()) {
-                return true;
+                inScrollingContainer = true;
+                break;
             }
             p = p.getParent();
         }
-        return false;
+        inScrollingContainerValid = ViewCompat.isAttachedToWindow(this);
     }
 
-    @SuppressWarnings("unchecked")
     private void dispatchOnChangedProgramatically() {
-        for (L listener : changeListeners) {
-            for (Float value : values) {
-                listener.onValueChange((S) this, value, false);
-            }
+        int[] changed = obtainChangedIndices();
+        for (int i = 0; i < valueCount; i++) {
+            changed[i] = i;
+        }
+        dispatchOnValuesChanged(changed, valueCount, false);
+    }
+
+    @NonNull
+    private int[] obtainChangedIndices() {
+        if (changedIndices.length <= dispatchDepth) {
+            changedIndices = Arrays.copyOf(changedIndices, dispatchDepth + 1);
+        }
+        int[] changed = changedIndices[dispatchDepth];
+        if (changed == null || changed.length < valueCount) {
+            changed = new int[values.length];
+            changedIndices[dispatchDepth] = changed;
+        }
+        return changed;
+    }
+
+    @NonNull
+    private float[] obtainValuesSnapshot() {
+        if (valuesSnapshots.length <= dispatchDepth) {
+            valuesSnapshots = Arrays.copyOf(valuesSnapshots, dispatchDepth + 1);
+        }
+        float[] snapshot = valuesSnapshots[dispatchDepth];
+        if (snapshot == null || snapshot.length != valueCount) {
+            snapshot = new float[valueCount];
+            valuesSnapshots[dispatchDepth] = snapshot;
         }
+        return snapshot;
     }
 
     @SuppressWarnings("unchecked")
+    private void dispatchOnValuesChanged(@NonNull int[] changed, int changedCount, boolean fromUser) {
+        if (changedCount == 0) {
+            return;
+        }
+        float[] snapshot = valuesChangeListeners.isEmpty() ? null : obtainValuesSnapshot();
+        dispatchDepth++;
+        try {
+            // Per-value listeners are the fan-out of a single batch.
+            for (L listener : changeListeners) {
+                for (int i = 0; i < changedCount; i++) {
+                    listener.onValueChange((S) this, values[changed[i]], fromUser);
+                }
+            }
+            if (snapshot != null) {
+                for (BaseOnValuesChangeListener<S> listener : valuesChangeListeners) {
+                    System.arraycopy(values, 0, snapshot, 0, snapshot.length);
+                    listener.onValuesChange((S) this, snapshot, changed, changedCount, fromUser);
+                }
+            }
+        } finally {
+            dispatchDepth--;
+        }
+    }
+
+    public boolean isChangeDispatchCoalesced() {
+        return changeDispatchCoalesced;
+    }
+
+    public void setChangeDispatchCoalesced(boolean coalesced) {
+        if (changeDispatchCoalesced != coalesced) {
+            changeDispatchCoalesced = coalesced;
+            if (!coalesced) {
+                dispatchPendingUserChanges();
+            }
+        }
+    }
+
     private void dispatchOnChangedFromUser(int idx) {
-        for (L listener : changeListeners) {
-            listener.onValueChange((S) this, values.get(idx), true);
+        if (!changeDispatchCoalesced) {
+            dispatchOnChangedFromUserNow(idx);
+            return;
+        }
+
+        // Only the latest value of each thumb is delivered, once per frame.
+        if (pendingUserChanges.length < valueCount) {
+            pendingUserChanges = Arrays.copyOf(pendingUserChanges, values.length);
+        }
+        pendingUserChanges[idx] = true;
+        if (!userChangeDispatchScheduled) {
+            userChangeDispatchScheduled = true;
+            Choreographer.getInstance().postFrameCallback(userChangeDispatcher);
+        }
+    }
+
+    private void dispatchPendingUserChanges() {
+        if (userChangeDispatchScheduled) {
+            userChangeDispatchScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(userChangeDispatcher);
+        }
+        int[] changed = obtainChangedIndices();
+        int changedCount = 0;
+        int count = Math.min(valueCount, pendingUserChanges.length);
+        for (int i = 0; i < count; i++) {
+            if (pendingUserChanges[i]) {
+                pendingUserChanges[i] = false;
+                changed[changedCount++] = i;
+            }
         }
+        dispatchOnValuesChanged(changed, changedCount, true);
+        if (accessibilityManager != null && accessibilityManager.isEnabled()) {
+            for (int i = 0; i < changedCount; i++) {
+                scheduleAccessibilityEventSender(changed[i]);
+            }
+        }
+    }
+
+    private void dispatchOnChangedFromUserNow(int idx) {
+        int[] changed = obtainChangedIndices();
+        changed[0] = idx;
+        dispatchOnValuesChanged(changed, 1, true);
         if (accessibilityManager != null && accessibilityManager.isEnabled()) {
             scheduleAccessibilityEventSender(idx);
         }
@@ -1270,15 +2614,31 @@ abstract class BaseSlider<
     protected void drawableStateChanged() {
         super.drawableStateChanged();
 
-        inactiveTrackPaint.setColor(getColorForState(trackColorInactive));
-        activeTrackPaint.setColor(getColorForState(trackColorActive));
-        inactiveTicksPaint.setColor(getColorForState(tickColorInactive));
-        activeTicksPaint.setColor(getColorForState(tickColorActive));
-        if (thumbDrawable.isStateful()) {
-            thumbDrawable.setState(getDrawableState());
+        boolean colorsChanged =
+                updatePaintColor(inactiveTrackPaint, trackColorInactive)
+                        | updatePaintColor(activeTrackPaint, trackColorActive)
+                        | updatePaintColor(inactiveTicksPaint, tickColorInactive)
+                        | updatePaintColor(activeTicksPaint, tickColorActive);
+        if (thumbDrawable.isStateful() && thumbDrawable.setState(getDrawableState())) {
+            colorsChanged = true;
+            invalidateThumbNode();
         }
         haloPaint.setColor(getColorForState(haloColor));
         haloPaint.setAlpha(HALO_ALPHA);
+        if (colorsChanged) {
+            // Thumb moves only redraw the region around the moved thumbs, so a state driven color
+            // change has to redraw everything.
+            invalidate();
+        }
+    }
+
+    private boolean updatePaintColor(@NonNull Paint paint, @NonNull ColorStateList colorStateList) {
+        int color = getColorForState(colorStateList);
+        if (paint.getColor() == color) {
+            return false;
+        }
+        paint.setColor(color);
+        return true;
     }
 
     @ColorInt
@@ -1286,6 +2646,12 @@ abstract class BaseSlider<
         return colorStateList.getColorForState(getDrawableState(), colorStateList.getDefaultColor());
     }
 
+    @VisibleForTesting
+    @Nullable
+    float[] getTicksCoordinates() {
+        return ticksCoordinates;
+    }
+
     @VisibleForTesting
     void forceDrawCompatHalo(boolean force) {
         forceDrawCompatHalo = force;
@@ -1298,7 +2664,7 @@ abstract class BaseSlider<
         }
 
 
-        if (values.size() == 1) {
+        if (valueCount == 1) {
             activeThumbIdx = 0;
         }
 
@@ -1309,11 +2675,16 @@ abstract class BaseSlider<
         }
 
         isLongPress |= event.isLongPress();
-        Float increment = calculateIncrementForKey(keyCode);
-        if (increment != null) {
-            if (snapActiveThumbToValue(values.get(activeThumbIdx) + increment)) {
+        float increment = calculateIncrementForKey(keyCode);
+        if (!Float.isNaN(increment)) {
+            boolean changed =
+                    isDiscrete()
+                            ? snapThumbByTicks(
+                                    activeThumbIdx, Math.round(increment / calculateStepIncrement()))
+                            : snapActiveThumbToValue(values[activeThumbIdx] + increment);
+            if (changed) {
                 updateHaloHotspot();
-                postInvalidate();
+                invalidateDirtyRegion();
             }
             return true;
         }
@@ -1390,7 +2761,7 @@ abstract class BaseSlider<
         int oldFocusedThumbIdx = focusedThumbIdx;
 
         final long newFocusedThumbIdx = (long) oldFocusedThumbIdx + direction;
-        focusedThumbIdx = (int) clamp(newFocusedThumbIdx, 0, values.size() - 1);
+        focusedThumbIdx = (int) clamp(newFocusedThumbIdx, 0, valueCount - 1);
         if (focusedThumbIdx == oldFocusedThumbIdx) {
 
             return false;
@@ -1398,8 +2769,10 @@ abstract class BaseSlider<
         if (activeThumbIdx != -1) {
             activeThumbIdx = focusedThumbIdx;
         }
+        includeThumbInDirtyRegion(oldFocusedThumbIdx);
+        includeThumbInDirtyRegion(focusedThumbIdx);
         updateHaloHotspot();
-        postInvalidate();
+        invalidateDirtyRegion();
         return true;
     }
 
@@ -1411,7 +2784,12 @@ abstract class BaseSlider<
         return moveFocus(direction);
     }
 
-    private Float calculateIncrementForKey(int keyCode) {
+    private boolean snapThumbByTicks(int idx, long ticks) {
+        validateConfigurationIfDirty();
+        return snapThumbToTick(idx, valueTicks[idx] + ticks);
+    }
+
+    private float calculateIncrementForKey(int keyCode) {
 
 
         float increment = isLongPress ? calculateStepIncrement(20) : calculateStepIncrement();
@@ -1427,17 +2805,18 @@ abstract class BaseSlider<
             case KeyEvent.KEYCODE_PLUS:
                 return increment;
             default:
-                return null;
+                return Float.NaN;
         }
     }
 
     private float calculateStepIncrement() {
+        // With allowed values an increment is counted in ticks.
         return stepSize == 0 ? 1 : stepSize;
     }
 
     private float calculateStepIncrement(int stepFactor) {
         float increment = calculateStepIncrement();
-        float numSteps = (valueTo - valueFrom) / increment;
+        float numSteps = isDiscrete() ? getTickCount() : (valueTo - valueFrom) / increment;
         if (numSteps <= stepFactor) {
             return increment;
         }
@@ -1532,8 +2911,14 @@ abstract class BaseSlider<
         SliderState sliderState = new SliderState(superState);
         sliderState.valueFrom = valueFrom;
         sliderState.valueTo = valueTo;
-        sliderState.values = new ArrayList<>(values);
+        sliderState.values = Arrays.copyOf(values, valueCount);
+        sliderState.decimalDigits = decimalDigits;
+        sliderState.scaledValues = Arrays.copyOf(scaledValues, isFixedPoint() ? valueCount : 0);
         sliderState.stepSize = stepSize;
+        sliderState.scaledValueFrom = scaledValueFrom;
+        sliderState.scaledValueTo = scaledValueTo;
+        sliderState.scaledStepSize = scaledStepSize;
+        sliderState.allowedValues = allowedValues;
         sliderState.hasFocus = hasFocus();
         return sliderState;
     }
@@ -1545,8 +2930,21 @@ abstract class BaseSlider<
 
         valueFrom = sliderState.valueFrom;
         valueTo = sliderState.valueTo;
-        setValuesInternal(sliderState.values);
         stepSize = sliderState.stepSize;
+        boolean sameScale = isFixedPoint() && sliderState.decimalDigits == decimalDigits;
+        scaledValueFrom = sameScale ? sliderState.scaledValueFrom : toScaled(valueFrom);
+        scaledValueTo = sameScale ? sliderState.scaledValueTo : toScaled(valueTo);
+        scaledStepSize = sameScale ? sliderState.scaledStepSize : toScaled(stepSize);
+        activeRangeDirty = true;
+        thumbPositionsDirty = true;
+        if (sameScale) {
+            setScaledValuesInternal(sliderState.scaledValues);
+        } else {
+            setValuesInternal(sliderState.values);
+        }
+        allowedValues = sliderState.allowedValues;
+        ticksCoordinates = null;
+        dirtyConfig = true;
         if (sliderState.hasFocus) {
             requestFocus();
         }
@@ -1557,8 +2955,14 @@ abstract class BaseSlider<
 
         float valueFrom;
         float valueTo;
-        ArrayList<Float> values;
+        float[] values;
+        int decimalDigits;
+        long[] scaledValues;
         float stepSize;
+        long scaledValueFrom;
+        long scaledValueTo;
+        long scaledStepSize;
+        float[] allowedValues;
         boolean hasFocus;
 
         public static final Creator<SliderState> CREATOR =
@@ -1585,9 +2989,14 @@ abstract class BaseSlider<
             super(source);
             valueFrom = source.readFloat();
             valueTo = source.readFloat();
-            values = new ArrayList<>();
-            source.readList(values, Float.class.getClassLoader());
+            values = source.createFloatArray();
+            decimalDigits = source.readInt();
+            scaledValues = source.createLongArray();
             stepSize = source.readFloat();
+            scaledValueFrom = source.readLong();
+            scaledValueTo = source.readLong();
+            scaledStepSize = source.readLong();
+            allowedValues = source.createFloatArray();
             hasFocus = source.createBooleanArray()[0];
         }
 
@@ -1596,16 +3005,68 @@ abstract class BaseSlider<
             super.writeToParcel(dest, flags);
             dest.writeFloat(valueFrom);
             dest.writeFloat(valueTo);
-            dest.writeList(values);
+            dest.writeFloatArray(values);
+            dest.writeInt(decimalDigits);
+            dest.writeLongArray(scaledValues);
             dest.writeFloat(stepSize);
+            dest.writeLong(scaledValueFrom);
+            dest.writeLong(scaledValueTo);
+            dest.writeLong(scaledStepSize);
+            dest.writeFloatArray(allowedValues);
             boolean[] booleans = new boolean[1];
             booleans[0] = hasFocus;
             dest.writeBooleanArray(booleans);
         }
     }
 
+    @NonNull
+    private int[] getThumbPositions() {
+        if (thumbPositionsDirty
+                || thumbPositionsTrackWidth != trackWidth
+                || thumbPositionsTrackSidePadding != trackSidePadding) {
+            if (thumbPositions.length < valueCount) {
+                thumbPositions = new int[values.length];
+            }
+            for (int i = 0; i < valueCount; i++) {
+                thumbPositions[i] = trackSidePadding + (int) (normalizeValue(values[i]) * trackWidth);
+            }
+            thumbPositionsTrackWidth = trackWidth;
+            thumbPositionsTrackSidePadding = trackSidePadding;
+            thumbPositionsDirty = false;
+        }
+        return thumbPositions;
+    }
+
+    int getVirtualViewIdAt(int x, int y) {
+        int top = calculateTop();
+        if (thumbRadius <= 0 || y < top - thumbRadius || y >= top + thumbRadius) {
+            return ExploreByTouchHelper.HOST_ID;
+        }
+
+        // Positions are monotonic in index order; find the lowest thumb whose bounds contain x.
+        int[] positions = getThumbPositions();
+        boolean rtl = isRtl();
+        int low = 0;
+        int high = valueCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            boolean before = rtl ? positions[mid] > x + thumbRadius : positions[mid] <= x - thumbRadius;
+            if (before) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low < valueCount
+                && positions[low] > x - thumbRadius
+                && positions[low] <= x + thumbRadius) {
+            return low;
+        }
+        return ExploreByTouchHelper.HOST_ID;
+    }
+
     void updateBoundsForVirturalViewId(int virtualViewId, Rect virtualViewBounds) {
-        int x = trackSidePadding + (int) (normalizeValue(getValues().get(virtualViewId)) * trackWidth);
+        int x = getThumbPositions()[virtualViewId];
         int y = calculateTop();
 
         virtualViewBounds.set(x - thumbRadius, y - thumbRadius, x + thumbRadius, y + thumbRadius);
@@ -1623,19 +3084,13 @@ abstract class BaseSlider<
 
         @Override
         protected int getVirtualViewAt(float x, float y) {
-            for (int i = 0; i < slider.getValues().size(); i++) {
-                slider.updateBoundsForVirturalViewId(i, virtualViewBounds);
-                if (virtualViewBounds.contains((int) x, (int) y)) {
-                    return i;
-                }
-            }
-
-            return ExploreByTouchHelper.HOST_ID;
+            return slider.getVirtualViewIdAt((int) x, (int) y);
         }
 
         @Override
         protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
-            for (int i = 0; i < slider.getValues().size(); i++) {
+            int count = slider.getValueCount();
+            for (int i = 0; i < count; i++) {
                 virtualViewIds.add(i);
             }
         }
@@ -1646,8 +3101,7 @@ abstract class BaseSlider<
 
             info.addAction(AccessibilityNodeInfoCompat.AccessibilityActionCompat.ACTION_SET_PROGRESS);
 
-            List<Float> values = slider.getValues();
-            final float value = values.get(virtualViewId);
+            final float value = slider.getValue(virtualViewId);
             float valueFrom = slider.getValueFrom();
             float valueTo = slider.getValueTo();
 
@@ -1686,7 +3140,7 @@ abstract class BaseSlider<
                             arguments.getFloat(AccessibilityNodeInfoCompat.ACTION_ARGUMENT_PROGRESS_VALUE);
                     if (slider.snapThumbToValue(virtualViewId, value)) {
                         slider.updateHaloHotspot();
-                        slider.postInvalidate();
+                        slider.invalidateDirtyRegion();
                         invalidateVirtualView(virtualViewId);
                         return true;
                     }
@@ -1704,15 +3158,25 @@ abstract class BaseSlider<
                         increment = -increment;
                     }
 
-                    List<Float> values = slider.getValues();
+                    if (slider.isDiscrete()) {
+                        long ticks = Math.round(increment / slider.calculateStepIncrement());
+                        if (slider.snapThumbByTicks(virtualViewId, ticks)) {
+                            slider.updateHaloHotspot();
+                            slider.invalidateDirtyRegion();
+                            invalidateVirtualView(virtualViewId);
+                            return true;
+                        }
+                        return false;
+                    }
+
                     float clamped =
                             clamp(
-                                    values.get(virtualViewId) + increment,
+                                    slider.getValue(virtualViewId) + increment,
                                     slider.getValueFrom(),
                                     slider.getValueTo());
                     if (slider.snapThumbToValue(virtualViewId, clamped)) {
                         slider.updateHaloHotspot();
-                        slider.postInvalidate();
+                        slider.invalidateDirtyRegion();
                         invalidateVirtualView(virtualViewId);
                         return true;
                     }
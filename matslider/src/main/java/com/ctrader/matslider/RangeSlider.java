@@ -14,7 +14,6 @@ import androidx.annotation.Nullable;
 import com.ctrader.matslider.RangeSlider.OnChangeListener;
 import com.ctrader.matslider.RangeSlider.OnSliderTouchListener;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class RangeSlider extends BaseSlider<RangeSlider, OnChangeListener, OnSliderTouchListener> {
@@ -48,6 +47,20 @@ public class RangeSlider extends BaseSlider<RangeSlider, OnChangeListener, OnSli
 
   public interface OnSliderTouchListener extends BaseOnSliderTouchListener<RangeSlider> {}
 
+  public interface OnValuesChangeListener extends BaseOnValuesChangeListener<RangeSlider> {}
+
+  public void addOnValuesChangeListener(@NonNull OnValuesChangeListener listener) {
+    super.addOnValuesChangeListener(listener);
+  }
+
+  public void removeOnValuesChangeListener(@NonNull OnValuesChangeListener listener) {
+    super.removeOnValuesChangeListener(listener);
+  }
+
+  public void clearOnValuesChangeListeners() {
+    super.clearOnValuesChangeListeners();
+  }
+
   @Override
   public void setValues(@NonNull Float... values) {
     super.setValues(values);
@@ -58,6 +71,21 @@ public class RangeSlider extends BaseSlider<RangeSlider, OnChangeListener, OnSli
     super.setValues(values);
   }
 
+  @Override
+  public void setValues(@NonNull float[] values) {
+    super.setValues(values);
+  }
+
+  @Override
+  public void setScaledValues(@NonNull long[] scaledValues) {
+    super.setScaledValues(scaledValues);
+  }
+
+  @Override
+  public void rebind(float valueFrom, float valueTo, float stepSize, @NonNull float[] values) {
+    super.rebind(valueFrom, valueTo, stepSize, values);
+  }
+
 
   @NonNull
   @Override
@@ -65,10 +93,10 @@ public class RangeSlider extends BaseSlider<RangeSlider, OnChangeListener, OnSli
     return super.getValues();
   }
 
-  private static List<Float> convertToFloat(TypedArray values) {
-    List<Float> ret = new ArrayList<>();
-    for (int i = 0; i < values.length(); ++i) {
-      ret.add(values.getFloat(i, -1));
+  private static float[] convertToFloat(TypedArray values) {
+    float[] ret = new float[values.length()];
+    for (int i = 0; i < ret.length; ++i) {
+      ret[i] = values.getFloat(i, -1);
     }
     return ret;
   }
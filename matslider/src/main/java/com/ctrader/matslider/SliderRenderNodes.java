@@ -0,0 +1,153 @@
+package com.ctrader.matslider;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RecordingCanvas;
+import android.graphics.Rect;
+import android.graphics.RenderNode;
+import android.os.Build.VERSION_CODES;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import com.ctrader.matslider.internal.MaterialShapeDrawable;
+
+import java.util.Arrays;
+
+@RequiresApi(VERSION_CODES.Q)
+final class SliderRenderNodes {
+
+    private final RenderNode trackNode = new RenderNode("SliderTrack");
+    private final RenderNode thumbNode = new RenderNode("SliderThumb");
+    // A node can only be drawn at one position per frame, so every thumb gets its own node that
+    // references the shared thumb content and is moved by its translation.
+    private RenderNode[] thumbPositionNodes = new RenderNode[0];
+    private boolean thumbDirty = true;
+
+    private boolean trackRecorded;
+    private int trackLeft;
+    private int trackRight;
+    private int trackTop;
+    private float trackStrokeWidth;
+    private int trackColor;
+    @Nullable
+    private float[] ticks;
+    private int tickCount;
+    private float tickStrokeWidth;
+    private int tickColor;
+
+    void invalidateThumb() {
+        thumbDirty = true;
+    }
+
+    void invalidateTrack() {
+        trackRecorded = false;
+    }
+
+    void discard() {
+        trackNode.discardDisplayList();
+        thumbNode.discardDisplayList();
+        for (RenderNode node : thumbPositionNodes) {
+            node.discardDisplayList();
+        }
+        thumbPositionNodes = new RenderNode[0];
+        trackRecorded = false;
+        thumbDirty = true;
+    }
+
+    void drawTrack(
+            @NonNull Canvas canvas,
+            int width,
+            int height,
+            @NonNull Paint trackPaint,
+            int left,
+            int right,
+            int top,
+            @Nullable float[] ticks,
+            @NonNull Paint ticksPaint) {
+        int tickCount = ticks == null ? 0 : ticks.length;
+        if (!trackRecorded
+                || trackLeft != left
+                || trackRight != right
+                || trackTop != top
+                || trackStrokeWidth != trackPaint.getStrokeWidth()
+                || trackColor != trackPaint.getColor()
+                || this.ticks != ticks
+                || this.tickCount != tickCount
+                || tickStrokeWidth != ticksPaint.getStrokeWidth()
+                || tickColor != ticksPaint.getColor()) {
+            trackLeft = left;
+            trackRight = right;
+            trackTop = top;
+            trackStrokeWidth = trackPaint.getStrokeWidth();
+            trackColor = trackPaint.getColor();
+            this.ticks = ticks;
+            this.tickCount = tickCount;
+            tickStrokeWidth = ticksPaint.getStrokeWidth();
+            tickColor = ticksPaint.getColor();
+            recordTrack(trackPaint, ticksPaint);
+            trackRecorded = true;
+        }
+        trackNode.setPosition(0, 0, width, height);
+        canvas.drawRenderNode(trackNode);
+    }
+
+    private void recordTrack(@NonNull Paint trackPaint, @NonNull Paint ticksPaint) {
+        trackNode.setClipToBounds(false);
+        RecordingCanvas canvas = trackNode.beginRecording();
+        try {
+            if (trackRight > trackLeft) {
+                canvas.drawLine(trackLeft, trackTop, trackRight, trackTop, trackPaint);
+            }
+            if (ticks != null) {
+                canvas.drawPoints(ticks, 0, tickCount, ticksPaint);
+            }
+        } finally {
+            trackNode.endRecording();
+        }
+    }
+
+    void prepareThumbs(@NonNull MaterialShapeDrawable thumbDrawable, int count) {
+        Rect bounds = thumbDrawable.getBounds();
+        if (thumbDirty) {
+            thumbNode.setPosition(0, 0, bounds.width(), bounds.height());
+            thumbNode.setClipToBounds(false);
+            RecordingCanvas canvas = thumbNode.beginRecording();
+            try {
+                canvas.translate(-bounds.left, -bounds.top);
+                thumbDrawable.draw(canvas);
+            } finally {
+                thumbNode.endRecording();
+            }
+            for (RenderNode node : thumbPositionNodes) {
+                node.setPosition(0, 0, bounds.width(), bounds.height());
+            }
+            thumbDirty = false;
+        }
+
+        if (thumbPositionNodes.length < count) {
+            int oldCount = thumbPositionNodes.length;
+            thumbPositionNodes = Arrays.copyOf(thumbPositionNodes, count);
+            for (int i = oldCount; i < count; i++) {
+                RenderNode node = new RenderNode("SliderThumbPosition");
+                node.setPosition(0, 0, bounds.width(), bounds.height());
+                node.setClipToBounds(false);
+                RecordingCanvas canvas = node.beginRecording();
+                try {
+                    canvas.drawRenderNode(thumbNode);
+                } finally {
+                    node.endRecording();
+                }
+                thumbPositionNodes[i] = node;
+            }
+        }
+    }
+
+    void drawThumb(@NonNull Canvas canvas, int index, float left, float top) {
+        RenderNode node = thumbPositionNodes[index];
+        node.setTranslationX(left);
+        node.setTranslationY(top);
+        canvas.drawRenderNode(node);
+    }
+}
@@ -0,0 +1,292 @@
+package com.ctrader.matslider;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.ctrader.matslider.internal.MaterialShapeDrawable;
+import com.ctrader.matslider.internal.ShapeAppearanceModel;
+
+import java.util.Arrays;
+
+/**
+ * Render resources of a slider with a known width and configuration, computed ahead of time so that
+ * binding a slider, e.g. in a RecyclerView row, leaves only drawing to the UI thread.
+ *
+ * <p>Take a {@link Spec} from a styled slider on the UI thread with {@link
+ * RangeSlider#getRenderSpec()}, call {@link #prefetch} on a worker thread and hand the result to
+ * {@link RangeSlider#setRenderResources(SliderRenderResources)} when binding. Resources that don't
+ * match the slider they are given to are ignored.
+ */
+public final class SliderRenderResources {
+
+    /**
+     * The part of a slider's configuration that comes from its style and layout direction.
+     */
+    public static final class Spec {
+
+        final int trackSidePadding;
+        final int trackTop;
+        final int trackHeight;
+        final int thumbRadius;
+        final float thumbElevation;
+        final int thumbShadowColor;
+        final boolean rtl;
+
+        Spec(
+                int trackSidePadding,
+                int trackTop,
+                int trackHeight,
+                int thumbRadius,
+                float thumbElevation,
+                int thumbShadowColor,
+                boolean rtl) {
+            this.trackSidePadding = trackSidePadding;
+            this.trackTop = trackTop;
+            this.trackHeight = trackHeight;
+            this.thumbRadius = thumbRadius;
+            this.thumbElevation = thumbElevation;
+            this.thumbShadowColor = thumbShadowColor;
+            this.rtl = rtl;
+        }
+
+        boolean matches(
+                int trackSidePadding,
+                int trackTop,
+                int trackHeight,
+                int thumbRadius,
+                float thumbElevation,
+                int thumbShadowColor,
+                boolean rtl) {
+            return this.trackSidePadding == trackSidePadding
+                    && this.trackTop == trackTop
+                    && this.trackHeight == trackHeight
+                    && this.thumbRadius == thumbRadius
+                    && this.thumbElevation == thumbElevation
+                    && this.thumbShadowColor == thumbShadowColor
+                    && this.rtl == rtl;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Spec)) {
+                return false;
+            }
+            Spec that = (Spec) o;
+            return matches(
+                    that.trackSidePadding,
+                    that.trackTop,
+                    that.trackHeight,
+                    that.thumbRadius,
+                    that.thumbElevation,
+                    that.thumbShadowColor,
+                    that.rtl);
+        }
+
+        @Override
+        public int hashCode() {
+            Object[] hashedFields = {
+                    trackSidePadding,
+                    trackTop,
+                    trackHeight,
+                    thumbRadius,
+                    thumbElevation,
+                    thumbShadowColor,
+                    rtl
+            };
+            return Arrays.hashCode(hashedFields);
+        }
+    }
+
+    @NonNull
+    final Spec spec;
+    final int width;
+    final float valueFrom;
+    final float valueTo;
+    final float stepSize;
+    @Nullable
+    final float[] allowedValues;
+    private final long tickCount;
+    @Nullable
+    private final float[] ticksCoordinates;
+    @Nullable
+    final Bitmap thumbShadowLayer;
+
+    private SliderRenderResources(
+            @NonNull Spec spec,
+            int width,
+            float valueFrom,
+            float valueTo,
+            float stepSize,
+            @Nullable float[] allowedValues,
+            long tickCount,
+            @Nullable float[] ticksCoordinates,
+            @Nullable Bitmap thumbShadowLayer) {
+        this.spec = spec;
+        this.width = width;
+        this.valueFrom = valueFrom;
+        this.valueTo = valueTo;
+        this.stepSize = stepSize;
+        this.allowedValues = allowedValues;
+        this.tickCount = tickCount;
+        this.ticksCoordinates = ticksCoordinates;
+        this.thumbShadowLayer = thumbShadowLayer;
+    }
+
+    /**
+     * Computes the tick coordinates and the thumb shadow of a slider styled like {@code spec} that
+     * is laid out {@code width} pixels wide. Does not touch any view, so it can run on any thread.
+     */
+    @WorkerThread
+    @NonNull
+    public static SliderRenderResources prefetch(
+            @NonNull Spec spec,
+            int width,
+            float valueFrom,
+            float valueTo,
+            float stepSize,
+            @Nullable float[] allowedValues) {
+        if (valueFrom >= valueTo) {
+            throw new IllegalArgumentException("valueFrom must be smaller than valueTo");
+        }
+        if (allowedValues != null) {
+            allowedValues = allowedValues.clone();
+            Arrays.sort(allowedValues);
+        }
+
+        int trackWidth = Math.max(width - spec.trackSidePadding * 2, 0);
+        long tickCount = -1;
+        float[] ticks = null;
+        if (allowedValues != null) {
+            tickCount = allowedValues.length - 1;
+            ticks =
+                    calculateAllowedTicksCoordinates(
+                            null,
+                            allowedValues,
+                            valueFrom,
+                            valueTo,
+                            spec.rtl,
+                            trackWidth,
+                            spec.trackSidePadding,
+                            spec.trackTop);
+        } else if (stepSize > 0) {
+            tickCount = BaseSlider.calculateTickCount(valueFrom, valueTo, stepSize);
+            ticks =
+                    calculateTicksCoordinates(
+                            null,
+                            tickCount + 1,
+                            trackWidth,
+                            spec.trackHeight,
+                            spec.trackSidePadding,
+                            spec.trackTop);
+        }
+
+        return new SliderRenderResources(
+                spec,
+                width,
+                valueFrom,
+                valueTo,
+                stepSize,
+                allowedValues,
+                tickCount,
+                ticks,
+                prefetchThumbShadowLayer(spec));
+    }
+
+    @Nullable
+    private static Bitmap prefetchThumbShadowLayer(@NonNull Spec spec) {
+        if (spec.thumbRadius <= 0) {
+            return null;
+        }
+        // Mirrors how BaseSlider sets up its thumb drawable.
+        MaterialShapeDrawable thumb =
+                new MaterialShapeDrawable(
+                        ShapeAppearanceModel.builder().setAllCorners(spec.thumbRadius).build());
+        thumb.setShadowCompatibilityMode(MaterialShapeDrawable.SHADOW_COMPAT_MODE_ALWAYS);
+        thumb.setElevation(spec.thumbElevation);
+        thumb.setShadowColor(spec.thumbShadowColor);
+        thumb.setBounds(0, 0, spec.thumbRadius * 2, spec.thumbRadius * 2);
+        return thumb.prefetch();
+    }
+
+    /**
+     * Returns the tick coordinates if they were computed for this width, range and number of steps,
+     * or null if they don't apply. The array is shared by every slider given these resources and must not be
+     * written to. The caller is responsible for checking {@link #spec}.
+     */
+    @Nullable
+    float[] getTicksCoordinates(
+            int width,
+            float valueFrom,
+            float valueTo,
+            float stepSize,
+            @Nullable float[] allowedValues,
+            long tickCount) {
+        if (ticksCoordinates == null
+                || this.tickCount != tickCount
+                || this.width != width
+                || this.valueFrom != valueFrom
+                || this.valueTo != valueTo
+                || this.stepSize != stepSize
+                || !Arrays.equals(this.allowedValues, allowedValues)) {
+            return null;
+        }
+        return ticksCoordinates;
+    }
+
+    @NonNull
+    static float[] calculateTicksCoordinates(
+            @Nullable float[] out,
+            long tickCount,
+            int trackWidth,
+            int trackHeight,
+            int trackSidePadding,
+            int top) {
+        int count = (int) Math.min(tickCount, Integer.MAX_VALUE);
+
+        count = Math.min(count, trackWidth / (trackHeight * 2) + 1);
+        if (out == null || out.length != count * 2) {
+            out = new float[count * 2];
+        }
+
+        float interval = trackWidth / (float) (count - 1);
+        for (int i = 0; i < count * 2; i += 2) {
+            out[i] = trackSidePadding + i / 2 * interval;
+            out[i + 1] = top;
+        }
+        return out;
+    }
+
+    @NonNull
+    static float[] calculateAllowedTicksCoordinates(
+            @Nullable float[] out,
+            @NonNull float[] allowed,
+            float valueFrom,
+            float valueTo,
+            boolean rtl,
+            int trackWidth,
+            int trackSidePadding,
+            int top) {
+        int tickCount = allowed.length;
+        if (out == null || out.length != tickCount * 2) {
+            out = new float[tickCount * 2];
+        }
+
+        // Coordinates are kept in ascending x so the active pivots can be found by binary search.
+        for (int i = 0; i < tickCount; i++) {
+            float value = allowed[rtl ? tickCount - 1 - i : i];
+            float normalized = (value - valueFrom) / (valueTo - valueFrom);
+            if (rtl) {
+                normalized = 1 - normalized;
+            }
+            out[i * 2] = normalized * trackWidth + trackSidePadding;
+            out[i * 2 + 1] = top;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,87 @@
+package com.ctrader.matslider;
+
+import android.content.res.ColorStateList;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.util.LongSparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.ctrader.matslider.internal.MaterialShapeDrawable;
+
+final class ThumbSpriteCache {
+
+    @NonNull
+    private final MaterialShapeDrawable thumbDrawable;
+    private final LongSparseArray<Bitmap> sprites = new LongSparseArray<>();
+    private final Canvas spriteCanvas = new Canvas();
+    private float density;
+    private int padding;
+
+    ThumbSpriteCache(@NonNull MaterialShapeDrawable thumbDrawable) {
+        this.thumbDrawable = thumbDrawable;
+    }
+
+    void invalidate() {
+        // Sprites may still be referenced by a recorded display list, so they are left to the GC
+        // instead of being recycled.
+        sprites.clear();
+    }
+
+    int getPadding() {
+        return padding;
+    }
+
+    @NonNull
+    Bitmap getSprite(float density) {
+        if (this.density != density) {
+            this.density = density;
+            invalidate();
+        }
+
+        long key = spriteKey();
+        Bitmap sprite = sprites.get(key);
+        if (sprite == null) {
+            sprite = renderSprite();
+            sprites.put(key, sprite);
+        }
+        return sprite;
+    }
+
+    private long spriteKey() {
+        int[] state = thumbDrawable.getState();
+        int fillColor = colorForState(thumbDrawable.getFillColor(), state);
+        int strokeColor = colorForState(thumbDrawable.getStrokeColor(), state);
+        return ((long) fillColor << 32) | (strokeColor & 0xffffffffL);
+    }
+
+    private static int colorForState(@Nullable ColorStateList colors, int[] state) {
+        return colors == null ? 0 : colors.getColorForState(state, colors.getDefaultColor());
+    }
+
+    @NonNull
+    private Bitmap renderSprite() {
+        // The compat shadow is drawn outside of the drawable bounds, so leave room for its blur
+        // radius and its offset on every side.
+        padding =
+                thumbDrawable.getShadowRadius()
+                        + Math.max(
+                                Math.abs(thumbDrawable.getShadowOffsetX()),
+                                Math.abs(thumbDrawable.getShadowOffsetY()));
+        Rect bounds = thumbDrawable.getBounds();
+        Bitmap sprite =
+                Bitmap.createBitmap(
+                        Math.max(bounds.width() + padding * 2, 1),
+                        Math.max(bounds.height() + padding * 2, 1),
+                        Bitmap.Config.ARGB_8888);
+        spriteCanvas.setBitmap(sprite);
+        int saveCount = spriteCanvas.save();
+        spriteCanvas.translate(padding - bounds.left, padding - bounds.top);
+        thumbDrawable.draw(spriteCanvas);
+        spriteCanvas.restoreToCount(saveCount);
+        spriteCanvas.setBitmap(null);
+        return sprite;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ctrader.matslider;
+
+/**
+ * Extrapolates a touch coordinate along one axis. A least squares line is fitted over the samples
+ * of the last {@code windowMillis} and extended past the newest sample.
+ */
+public final class TouchPredictor {
+
+    private static final int MAX_SAMPLES = 8;
+    private static final long DEFAULT_WINDOW_MILLIS = 40;
+
+    private final long[] times = new long[MAX_SAMPLES];
+    private final float[] positions = new float[MAX_SAMPLES];
+    private final long windowMillis;
+    private int count;
+    private int newest = -1;
+
+    public TouchPredictor() {
+        this(DEFAULT_WINDOW_MILLIS);
+    }
+
+    public TouchPredictor(long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        this.windowMillis = windowMillis;
+    }
+
+    public void reset() {
+        count = 0;
+        newest = -1;
+    }
+
+    public void addSample(long timeMillis, float position) {
+        if (count > 0) {
+            long newestTime = times[newest];
+            if (timeMillis < newestTime) {
+                reset();
+            } else if (timeMillis == newestTime) {
+                positions[newest] = position;
+                return;
+            }
+        }
+        newest = (newest + 1) % MAX_SAMPLES;
+        times[newest] = timeMillis;
+        positions[newest] = position;
+        count = Math.min(count + 1, MAX_SAMPLES);
+    }
+
+    /**
+     * Returns the position expected {@code horizonMillis} after the newest sample, or
+     * {@link Float#NaN} if no sample has been added since the last reset.
+     */
+    public float predict(long horizonMillis) {
+        if (count == 0) {
+            return Float.NaN;
+        }
+        float latest = positions[newest];
+        long latestTime = times[newest];
+
+        int used = 0;
+        double meanTime = 0;
+        double meanPosition = 0;
+        for (int i = 0; i < count; i++) {
+            int idx = (newest - i + MAX_SAMPLES) % MAX_SAMPLES;
+            long age = latestTime - times[idx];
+            if (age > windowMillis) {
+                break;
+            }
+            meanTime -= age;
+            meanPosition += positions[idx];
+            used++;
+        }
+        if (used < 2) {
+            return latest;
+        }
+        meanTime /= used;
+        meanPosition /= used;
+
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < used; i++) {
+            int idx = (newest - i + MAX_SAMPLES) % MAX_SAMPLES;
+            double t = -(latestTime - times[idx]) - meanTime;
+            covariance += t * (positions[idx] - meanPosition);
+            variance += t * t;
+        }
+        if (variance == 0) {
+            return latest;
+        }
+        return (float) (latest + covariance / variance * horizonMillis);
+    }
+}
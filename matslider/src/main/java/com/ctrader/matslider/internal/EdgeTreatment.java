@@ -18,4 +18,14 @@ public class EdgeTreatment {
     boolean forceIntersection() {
         return false;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o != null && getClass() == o.getClass());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
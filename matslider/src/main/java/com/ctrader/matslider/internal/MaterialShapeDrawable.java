@@ -25,7 +25,6 @@ import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
-import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.ColorInt;
@@ -36,8 +35,7 @@ import androidx.annotation.Nullable;
 import androidx.core.graphics.drawable.TintAwareDrawable;
 import androidx.core.util.ObjectsCompat;
 
-import com.ctrader.matslider.internal.ShapeAppearanceModel.CornerSizeUnaryOperator;
-import com.ctrader.matslider.internal.ShapeAppearancePathProvider.PathListener;
+import com.ctrader.matslider.internal.ShapeAppearancePathProvider.CachedPath;
 import com.ctrader.matslider.internal.ShapePath.ShadowCompatOperation;
 
 import java.lang.annotation.Retention;
@@ -67,11 +65,18 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
 
     private static final Paint clearPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 
+    static {
+        clearPaint.setColor(Color.WHITE);
+        clearPaint.setXfermode(new PorterDuffXfermode(Mode.DST_OUT));
+    }
+
     private MaterialShapeDrawableState drawableState;
 
     private final ShadowCompatOperation[] cornerShadowOperation = new ShadowCompatOperation[4];
     private final ShadowCompatOperation[] edgeShadowOperation = new ShadowCompatOperation[4];
     private final BitSet containsIncompatibleShadowOp = new BitSet(8);
+    private float roundRectRadius = -1;
+    private final RectF roundRectShadowBounds = new RectF();
     private boolean pathDirty;
 
     private final Matrix matrix = new Matrix();
@@ -87,13 +92,9 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
     private final Paint strokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 
     private final ShadowRenderer shadowRenderer = new ShadowRenderer();
-    @NonNull
-    private final PathListener pathShadowListener;
 
     private final ShapeAppearancePathProvider pathProvider =
-            Looper.getMainLooper().getThread() == Thread.currentThread()
-                    ? ShapeAppearancePathProvider.getInstance()
-                    : new ShapeAppearancePathProvider();
+            ShapeAppearancePathProvider.getInstance();
 
     @Nullable
     private PorterDuffColorFilter tintFilter;
@@ -105,6 +106,16 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
 
     private boolean shadowBitmapDrawingEnable = true;
 
+    @Nullable
+    private Bitmap shadowLayer;
+    @Nullable
+    private Canvas shadowLayerCanvas;
+    private boolean shadowLayerDirty = true;
+    private int shadowLayerWidth;
+    private int shadowLayerHeight;
+    private float shadowLayerLeft;
+    private float shadowLayerTop;
+
 
     public MaterialShapeDrawable() {
         this(new ShapeAppearanceModel());
@@ -119,26 +130,8 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
         this.drawableState = drawableState;
         strokePaint.setStyle(Style.STROKE);
         fillPaint.setStyle(Style.FILL);
-        clearPaint.setColor(Color.WHITE);
-        clearPaint.setXfermode(new PorterDuffXfermode(Mode.DST_OUT));
         updateTintFilter();
         updateColorsForState(getState());
-        // Listens to additions of corners and edges, to create the shadow operations.
-        pathShadowListener =
-                new PathListener() {
-                    @Override
-                    public void onCornerPathCreated(
-                            @NonNull ShapePath cornerPath, Matrix transform, int count) {
-                        containsIncompatibleShadowOp.set(count, cornerPath.containsIncompatibleShadowOp());
-                        cornerShadowOperation[count] = cornerPath.createShadowCompatOperation(transform);
-                    }
-
-                    @Override
-                    public void onEdgePathCreated(@NonNull ShapePath edgePath, Matrix transform, int count) {
-                        containsIncompatibleShadowOp.set(count + 4, edgePath.containsIncompatibleShadowOp());
-                        edgeShadowOperation[count] = edgePath.createShadowCompatOperation(transform);
-                    }
-                };
     }
 
     @Nullable
@@ -163,6 +156,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
     @Override
     public void setShapeAppearanceModel(@NonNull ShapeAppearanceModel shapeAppearanceModel) {
         drawableState.shapeAppearanceModel = shapeAppearanceModel;
+        shadowLayerDirty = true;
         invalidateSelf();
     }
 
@@ -322,6 +316,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
         float z = getZ();
         drawableState.shadowCompatRadius = (int) Math.ceil(z * SHADOW_RADIUS_MULTIPLIER);
         drawableState.shadowCompatOffset = (int) Math.ceil(z * SHADOW_OFFSET_MULTIPLIER);
+        shadowLayerDirty = true;
         // Recalculate fillPaint tint filter based on z, elevationOverlayProvider, etc.
         updateTintFilter();
         invalidateSelfIgnoreShape();
@@ -338,9 +333,25 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
     }
 
 
+    public int getShadowRadius() {
+        return drawableState.shadowCompatRadius;
+    }
+
     @Deprecated
     public void setShadowRadius(int shadowRadius) {
         drawableState.shadowCompatRadius = shadowRadius;
+        shadowLayerDirty = true;
+    }
+
+    public int getShadowColor() {
+        return shadowRenderer.getShadowColor();
+    }
+
+    public void setShadowColor(int shadowColor) {
+        shadowRenderer.setShadowColor(shadowColor);
+        drawableState.useTintColorForShadow = false;
+        shadowLayerDirty = true;
+        invalidateSelfIgnoreShape();
     }
 
     public boolean requiresCompatShadow() {
@@ -380,6 +391,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
     @Override
     protected void onBoundsChange(Rect bounds) {
         pathDirty = true;
+        shadowLayerDirty = true;
         super.onBoundsChange(bounds);
     }
 
@@ -395,11 +407,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
         final int prevStrokeAlpha = strokePaint.getAlpha();
         strokePaint.setAlpha(modulateAlpha(prevStrokeAlpha, drawableState.alpha));
 
-        if (pathDirty) {
-            calculateStrokePath();
-            calculatePath(getBoundsAsRectF(), path);
-            pathDirty = false;
-        }
+        updatePathIfDirty();
 
         maybeDrawCompatShadow(canvas);
         if (hasFill()) {
@@ -426,6 +434,60 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
             return;
         }
 
+        updateShadowLayerGeometry();
+        canvas.drawBitmap(updateShadowLayerIfDirty(), shadowLayerLeft, shadowLayerTop, null);
+
+        // Restore the canvas to the same size it was before drawing any shadows.
+        canvas.restore();
+    }
+
+    /**
+     * Computes the path and, when this drawable draws a compat shadow, its shadow layer for the
+     * current bounds, so that the next draw only blits. Safe to call on a worker thread as long as
+     * no other thread uses this drawable. Returns the shadow layer, or null if none is drawn.
+     */
+    @Nullable
+    public Bitmap prefetch() {
+        updatePathIfDirty();
+        if (!hasCompatShadow() || !shadowBitmapDrawingEnable) {
+            return null;
+        }
+        updateShadowLayerGeometry();
+        return updateShadowLayerIfDirty();
+    }
+
+    /**
+     * Uses a layer returned by {@link #prefetch()} on an identically configured drawable, whose
+     * shadow color was {@code shadowColor}, as this drawable's shadow. Returns false and keeps the
+     * current shadow if the layer doesn't fit.
+     */
+    public boolean adoptShadowLayer(@NonNull Bitmap layer, int shadowColor) {
+        updatePathIfDirty();
+        if (!hasCompatShadow() || !shadowBitmapDrawingEnable) {
+            return false;
+        }
+        updateShadowLayerGeometry();
+        if (layer.getWidth() != shadowLayerWidth
+                || layer.getHeight() != shadowLayerHeight
+                || shadowRenderer.getShadowColor() != shadowColor) {
+            return false;
+        }
+        ShadowLayerCache.getInstance().put(newShadowLayerKey(), layer);
+        shadowLayer = layer;
+        shadowLayerDirty = false;
+        return true;
+    }
+
+    private void updatePathIfDirty() {
+        if (pathDirty) {
+            strokePaint.setStrokeWidth(drawableState.strokeWidth);
+            calculateStrokePath();
+            calculatePath(getBoundsAsRectF(), path);
+            pathDirty = false;
+        }
+    }
+
+    private void updateShadowLayerGeometry() {
         // The extra height is the amount that the path draws outside of the bounds of the shape. This
         // happens for some shapes like TriangleEdgeTreament when it draws a triangle outside.
         int pathExtraWidth = (int) (pathBounds.width() - getBounds().width());
@@ -438,26 +500,67 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
 
         // Drawing the shadow in a bitmap lets us use the clear paint rather than using clipPath to
         // prevent drawing shadow under the shape. clipPath has problems :-/
-        Bitmap shadowLayer =
-                Bitmap.createBitmap(
-                        (int) pathBounds.width() + drawableState.shadowCompatRadius * 2 + pathExtraWidth,
-                        (int) pathBounds.height() + drawableState.shadowCompatRadius * 2 + pathExtraHeight,
-                        Bitmap.Config.ARGB_8888);
-        Canvas shadowCanvas = new Canvas(shadowLayer);
+        shadowLayerWidth =
+                (int) pathBounds.width() + drawableState.shadowCompatRadius * 2 + pathExtraWidth;
+        shadowLayerHeight =
+                (int) pathBounds.height() + drawableState.shadowCompatRadius * 2 + pathExtraHeight;
 
         // Top Left of shadow (left - shadowCompatRadius, top - shadowCompatRadius) should be drawn at
         // (0, 0) on shadowCanvas. Offset is handled by prepareCanvasForShadow and drawCompatShadow.
-        float shadowLeft = getBounds().left - drawableState.shadowCompatRadius - pathExtraWidth;
-        float shadowTop = getBounds().top - drawableState.shadowCompatRadius - pathExtraHeight;
-        shadowCanvas.translate(-shadowLeft, -shadowTop);
-        drawCompatShadow(shadowCanvas);
-        canvas.drawBitmap(shadowLayer, shadowLeft, shadowTop, null);
-        // Because we create the bitmap every time, we can recycle it. We may need to stop doing this
-        // if we end up keeping the bitmap in memory for performance.
-        shadowLayer.recycle();
+        shadowLayerLeft = getBounds().left - drawableState.shadowCompatRadius - pathExtraWidth;
+        shadowLayerTop = getBounds().top - drawableState.shadowCompatRadius - pathExtraHeight;
+    }
 
-        // Restore the canvas to the same size it was before drawing any shadows.
-        canvas.restore();
+    @NonNull
+    private Bitmap updateShadowLayerIfDirty() {
+        if (shadowLayer == null || shadowLayerDirty) {
+            // The layer is kept between draws and only looked up again when the shadow geometry or
+            // color changes, so dragging a thumb around costs a single drawBitmap per frame.
+            shadowLayer =
+                    obtainShadowLayer(shadowLayerWidth, shadowLayerHeight, shadowLayerLeft, shadowLayerTop);
+            shadowLayerDirty = false;
+        }
+        return shadowLayer;
+    }
+
+    @NonNull
+    private ShadowLayerCache.Key newShadowLayerKey() {
+        // Identical shapes share one rendered layer across all drawables in the process. The layer
+        // only depends on the size of the bounds, not on their position.
+        return new ShadowLayerCache.Key(
+                        drawableState.shapeAppearanceModel,
+                        getBounds().width(),
+                        getBounds().height(),
+                        drawableState.interpolation,
+                        drawableState.scale,
+                        drawableState.shadowCompatRadius,
+                        getShadowOffsetX(),
+                        getShadowOffsetY(),
+                        shadowRenderer.getShadowColor());
+    }
+
+    @NonNull
+    private Bitmap obtainShadowLayer(int width, int height, float shadowLeft, float shadowTop) {
+        ShadowLayerCache.Key key = newShadowLayerKey();
+        ShadowLayerCache cache = ShadowLayerCache.getInstance();
+        Bitmap layer = cache.get(key);
+        if (layer != null) {
+            return layer;
+        }
+
+        layer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        if (shadowLayerCanvas == null) {
+            shadowLayerCanvas = new Canvas(layer);
+        } else {
+            shadowLayerCanvas.setBitmap(layer);
+        }
+        int saveCount = shadowLayerCanvas.save();
+        shadowLayerCanvas.translate(-shadowLeft, -shadowTop);
+        drawCompatShadow(shadowLayerCanvas);
+        shadowLayerCanvas.restoreToCount(saveCount);
+        shadowLayerCanvas.setBitmap(null);
+        cache.put(key, layer);
+        return layer;
     }
 
     private void drawShape(
@@ -519,9 +622,14 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
         }
 
         // Draw the fake shadow for each of the corners and edges.
-        for (int index = 0; index < 4; index++) {
-            cornerShadowOperation[index].draw(shadowRenderer, drawableState.shadowCompatRadius, canvas);
-            edgeShadowOperation[index].draw(shadowRenderer, drawableState.shadowCompatRadius, canvas);
+        if (roundRectRadius >= 0) {
+            shadowRenderer.drawRoundRectShadow(
+                    canvas, roundRectShadowBounds, roundRectRadius, drawableState.shadowCompatRadius);
+        } else {
+            for (int index = 0; index < 4; index++) {
+                cornerShadowOperation[index].draw(shadowRenderer, drawableState.shadowCompatRadius, canvas);
+                edgeShadowOperation[index].draw(shadowRenderer, drawableState.shadowCompatRadius, canvas);
+            }
         }
 
         if (shadowBitmapDrawingEnable) {
@@ -552,33 +660,35 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
     }
 
     protected final void calculatePathForSize(@NonNull RectF bounds, @NonNull Path path) {
-        pathProvider.calculatePath(
-                drawableState.shapeAppearanceModel,
-                drawableState.interpolation,
-                bounds,
-                pathShadowListener,
-                path);
+        ShapeAppearanceModel shapeAppearanceModel = drawableState.shapeAppearanceModel;
+        if (shapeAppearanceModel.isUniformRoundRect()) {
+            roundRectRadius = calculateRoundRectPath(shapeAppearanceModel, bounds, path);
+            roundRectShadowBounds.set(bounds);
+            containsIncompatibleShadowOp.clear();
+            return;
+        }
+        roundRectRadius = -1;
+
+        CachedPath cached =
+                pathProvider.obtainPath(
+                        drawableState.shapeAppearanceModel, drawableState.interpolation, bounds);
+        path.set(cached.path);
+        System.arraycopy(cached.cornerShadowOperations, 0, cornerShadowOperation, 0, 4);
+        System.arraycopy(cached.edgeShadowOperations, 0, edgeShadowOperation, 0, 4);
+        containsIncompatibleShadowOp.clear();
+        containsIncompatibleShadowOp.or(cached.containsIncompatibleShadowOp);
     }
 
     private void calculateStrokePath() {
         // Adjust corner radius in order to draw the stroke so that the corners of the background are
         // drawn on top of the edges.
-        final float strokeInsetLength = -getStrokeInsetLength();
-        strokeShapeAppearance =
-                getShapeAppearanceModel()
-                        .withTransformedCornerSizes(
-                                new CornerSizeUnaryOperator() {
-                                    @NonNull
-                                    @Override
-                                    public CornerSize apply(@NonNull CornerSize cornerSize) {
-                                        // Don't adjust for relative corners they will change by themselves when the
-                                        // bounds change.
-                                        return cornerSize instanceof RelativeCornerSize
-                                                ? cornerSize
-                                                : new AdjustedCornerSize(strokeInsetLength, cornerSize);
-                                    }
-                                });
+        float strokeInsetLength = -getStrokeInsetLength();
+        strokeShapeAppearance = getShapeAppearanceModel().withStrokeInset(strokeInsetLength);
 
+        if (strokeShapeAppearance.isUniformRoundRect()) {
+            calculateRoundRectPath(strokeShapeAppearance, getBoundsInsetByStroke(), pathInsetByStroke);
+            return;
+        }
         pathProvider.calculatePath(
                 strokeShapeAppearance,
                 drawableState.interpolation,
@@ -586,6 +696,25 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
                 pathInsetByStroke);
     }
 
+    // Circles and round rects are built directly instead of through the generic corner and edge
+    // treatments, which need path boolean ops.
+    private float calculateRoundRectPath(
+            @NonNull ShapeAppearanceModel shapeAppearanceModel,
+            @NonNull RectF bounds,
+            @NonNull Path path) {
+        float radius =
+                shapeAppearanceModel.getTopLeftCornerSize().getCornerSize(bounds)
+                        * drawableState.interpolation;
+        radius = Math.max(0, Math.min(radius, Math.min(bounds.width(), bounds.height()) / 2));
+        path.rewind();
+        if (bounds.width() == bounds.height() && radius * 2 == bounds.width()) {
+            path.addCircle(bounds.centerX(), bounds.centerY(), radius, Path.Direction.CW);
+        } else {
+            path.addRoundRect(bounds, radius, radius, Path.Direction.CW);
+        }
+        return radius;
+    }
+
     @TargetApi(VERSION_CODES.LOLLIPOP)
     @Override
     public void getOutline(@NonNull Outline outline) {
@@ -642,8 +771,11 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
                         strokePaint,
                         /* requiresElevationOverlay= */ false);
         if (drawableState.useTintColorForShadow) {
-            shadowRenderer.setShadowColor(
-                    drawableState.tintList.getColorForState(getState(), Color.TRANSPARENT));
+            int shadowColor = drawableState.tintList.getColorForState(getState(), Color.TRANSPARENT);
+            if (shadowRenderer.getShadowColor() != shadowColor) {
+                shadowRenderer.setShadowColor(shadowColor);
+                shadowLayerDirty = true;
+            }
         }
         return !ObjectsCompat.equals(originalTintFilter, tintFilter)
                 || !ObjectsCompat.equals(originalStrokeTintFilter, strokeTintFilter);
@@ -4,6 +4,8 @@ import android.graphics.RectF;
 
 import androidx.annotation.NonNull;
 
+import java.util.Arrays;
+
 public class RoundedCornerTreatment {
 
     float radius = -1;
@@ -25,4 +27,22 @@ public class RoundedCornerTreatment {
         shapePath.reset(0, radius * interpolation, ShapePath.ANGLE_LEFT, 180 - angle);
         shapePath.addArc(0, 0, 2 * radius * interpolation, 2 * radius * interpolation, 180, angle);
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RoundedCornerTreatment that = (RoundedCornerTreatment) o;
+        return radius == that.radius;
+    }
+
+    @Override
+    public int hashCode() {
+        Object[] hashedFields = {getClass(), radius};
+        return Arrays.hashCode(hashedFields);
+    }
 }
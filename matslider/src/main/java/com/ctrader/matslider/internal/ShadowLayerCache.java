@@ -0,0 +1,120 @@
+package com.ctrader.matslider.internal;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+final class ShadowLayerCache {
+
+    private static final int DEFAULT_MAX_SIZE_BYTES = 2 * 1024 * 1024;
+
+    private static class Lazy {
+        static final ShadowLayerCache INSTANCE = new ShadowLayerCache(DEFAULT_MAX_SIZE_BYTES);
+    }
+
+    // Evicted bitmaps are never recycled here: drawables keep a reference to the layer they last
+    // drew and may still be showing it.
+    private final LruCache<Key, Bitmap> layers;
+
+    ShadowLayerCache(int maxSizeBytes) {
+        layers =
+                new LruCache<Key, Bitmap>(maxSizeBytes) {
+                    @Override
+                    protected int sizeOf(Key key, Bitmap value) {
+                        return value.getAllocationByteCount();
+                    }
+                };
+    }
+
+    @NonNull
+    static ShadowLayerCache getInstance() {
+        return Lazy.INSTANCE;
+    }
+
+    @Nullable
+    Bitmap get(@NonNull Key key) {
+        return layers.get(key);
+    }
+
+    void put(@NonNull Key key, @NonNull Bitmap layer) {
+        layers.put(key, layer);
+    }
+
+    static final class Key {
+
+        @NonNull
+        private final ShapeAppearanceModel shapeAppearanceModel;
+        private final int width;
+        private final int height;
+        private final float interpolation;
+        private final float scale;
+        private final int shadowRadius;
+        private final int shadowOffsetX;
+        private final int shadowOffsetY;
+        private final int shadowColor;
+        private final int hashCode;
+
+        Key(
+                @NonNull ShapeAppearanceModel shapeAppearanceModel,
+                int width,
+                int height,
+                float interpolation,
+                float scale,
+                int shadowRadius,
+                int shadowOffsetX,
+                int shadowOffsetY,
+                int shadowColor) {
+            this.shapeAppearanceModel = shapeAppearanceModel;
+            this.width = width;
+            this.height = height;
+            this.interpolation = interpolation;
+            this.scale = scale;
+            this.shadowRadius = shadowRadius;
+            this.shadowOffsetX = shadowOffsetX;
+            this.shadowOffsetY = shadowOffsetY;
+            this.shadowColor = shadowColor;
+            Object[] hashedFields = {
+                    shapeAppearanceModel,
+                    width,
+                    height,
+                    interpolation,
+                    scale,
+                    shadowRadius,
+                    shadowOffsetX,
+                    shadowOffsetY,
+                    shadowColor
+            };
+            hashCode = Arrays.hashCode(hashedFields);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hashCode == that.hashCode
+                    && width == that.width
+                    && height == that.height
+                    && interpolation == that.interpolation
+                    && scale == that.scale
+                    && shadowRadius == that.shadowRadius
+                    && shadowOffsetX == that.shadowOffsetX
+                    && shadowOffsetY == that.shadowOffsetY
+                    && shadowColor == that.shadowColor
+                    && shapeAppearanceModel.equals(that.shapeAppearanceModel);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -15,16 +15,19 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.graphics.ColorUtils;
 
+import java.util.Arrays;
+
 public class ShadowRenderer {
 
     private static final int COLOR_ALPHA_START = 0x44;
     private static final int COLOR_ALPHA_MIDDLE = 0x14;
 
     private static final int COLOR_ALPHA_END = 0;
-    private static final int[] edgeColors = new int[3];
-    private static final float[] edgePositions = new float[]{0f, .5f, 1f};
-    private static final int[] cornerColors = new int[4];
-    private static final float[] cornerPositions = new float[]{0f, 0f, .5f, 1f};
+    private final float[] edgePositions = new float[]{0f, .5f, 1f};
+    private static final int CORNER_SHADER_CACHE_SIZE = 4;
+    private final int[] edgeColors = new int[3];
+    private final int[] cornerColors = new int[4];
+    private final float[] cornerPositions = new float[]{0f, 0f, .5f, 1f};
     @NonNull
     private final Paint shadowPaint;
     @NonNull
@@ -32,11 +35,29 @@ public class ShadowRenderer {
     @NonNull
     private final Paint edgeShadowPaint;
     private final Path scratch = new Path();
+    private int shadowColor;
     private int shadowStartColor;
     private int shadowMiddleColor;
     private int shadowEndColor;
     private Paint transparentPaint = new Paint();
 
+    // Gradients are built once at the origin and moved into place with a local matrix. They only
+    // depend on the shadow colors and on the size of the shadow, which rarely change.
+    private final Matrix shaderMatrix = new Matrix();
+    @Nullable
+    private LinearGradient edgeShader;
+    private float edgeShaderHeight;
+    private final long[] cornerShaderKeys = new long[CORNER_SHADER_CACHE_SIZE];
+    private final RadialGradient[] cornerShaders = new RadialGradient[CORNER_SHADER_CACHE_SIZE];
+    private int nextCornerShaderSlot;
+
+    // Scratch for replaying recorded shadow operations. A renderer belongs to one drawable, so this
+    // stays confined to the thread drawing it even when the operations themselves are shared.
+    private final Matrix edgeTransform = new Matrix();
+    private final RectF edgeScratch = new RectF();
+    private final Matrix roundRectTransform = new Matrix();
+    private final RectF roundRectScratch = new RectF();
+
     public ShadowRenderer() {
         this(Color.BLACK);
     }
@@ -53,10 +74,14 @@ public class ShadowRenderer {
     }
 
     public void setShadowColor(int color) {
+        shadowColor = color;
         shadowStartColor = ColorUtils.setAlphaComponent(color, COLOR_ALPHA_START);
         shadowMiddleColor = ColorUtils.setAlphaComponent(color, COLOR_ALPHA_MIDDLE);
         shadowEndColor = ColorUtils.setAlphaComponent(color, COLOR_ALPHA_END);
         shadowPaint.setColor(shadowStartColor);
+
+        edgeShader = null;
+        Arrays.fill(cornerShaders, null);
     }
 
     public void drawEdgeShadow(
@@ -64,19 +89,18 @@ public class ShadowRenderer {
         bounds.bottom += elevation;
         bounds.offset(0, -elevation);
 
-        edgeColors[0] = shadowEndColor;
-        edgeColors[1] = shadowMiddleColor;
-        edgeColors[2] = shadowStartColor;
-
-        edgeShadowPaint.setShader(
-                new LinearGradient(
-                        bounds.left,
-                        bounds.top,
-                        bounds.left,
-                        bounds.bottom,
-                        edgeColors,
-                        edgePositions,
-                        Shader.TileMode.CLAMP));
+        float height = bounds.height();
+        if (edgeShader == null || edgeShaderHeight != height) {
+            edgeColors[0] = shadowEndColor;
+            edgeColors[1] = shadowMiddleColor;
+            edgeColors[2] = shadowStartColor;
+            edgeShader =
+                    new LinearGradient(0, 0, 0, height, edgeColors, edgePositions, Shader.TileMode.CLAMP);
+            edgeShaderHeight = height;
+        }
+        shaderMatrix.setTranslate(bounds.left, bounds.top);
+        edgeShader.setLocalMatrix(shaderMatrix);
+        edgeShadowPaint.setShader(edgeShader);
 
         canvas.save();
         canvas.concat(transform);
@@ -96,22 +120,13 @@ public class ShadowRenderer {
 
         Path arcBounds = scratch;
 
-        if (drawShadowInsideBounds) {
-            cornerColors[0] = 0;
-            cornerColors[1] = shadowEndColor;
-            cornerColors[2] = shadowMiddleColor;
-            cornerColors[3] = shadowStartColor;
-        } else {
+        if (!drawShadowInsideBounds) {
             arcBounds.rewind();
             arcBounds.moveTo(bounds.centerX(), bounds.centerY());
             arcBounds.arcTo(bounds, startAngle, sweepAngle);
             arcBounds.close();
 
             bounds.inset(-elevation, -elevation);
-            cornerColors[0] = 0;
-            cornerColors[1] = shadowStartColor;
-            cornerColors[2] = shadowMiddleColor;
-            cornerColors[3] = shadowEndColor;
         }
 
         float radius = bounds.width() / 2f;
@@ -119,18 +134,10 @@ public class ShadowRenderer {
             return;
         }
 
-        float startRatio = 1f - (elevation / radius);
-        float midRatio = startRatio + ((1f - startRatio) / 2f);
-        cornerPositions[1] = startRatio;
-        cornerPositions[2] = midRatio;
-        cornerShadowPaint.setShader(
-                new RadialGradient(
-                        bounds.centerX(),
-                        bounds.centerY(),
-                        radius,
-                        cornerColors,
-                        cornerPositions,
-                        Shader.TileMode.CLAMP));
+        RadialGradient cornerShader = getCornerShader(radius, elevation, drawShadowInsideBounds);
+        shaderMatrix.setTranslate(bounds.centerX(), bounds.centerY());
+        cornerShader.setLocalMatrix(shaderMatrix);
+        cornerShadowPaint.setShader(cornerShader);
 
         // TODO(b/117606382): handle oval bounds by scaling the canvas.
         canvas.save();
@@ -146,6 +153,116 @@ public class ShadowRenderer {
         canvas.restore();
     }
 
+    void drawLineShadow(
+            @NonNull Canvas canvas,
+            @NonNull Matrix transform,
+            float startX,
+            float startY,
+            float length,
+            float angle,
+            int elevation) {
+        edgeTransform.set(transform);
+        edgeTransform.preTranslate(startX, startY);
+        edgeTransform.preRotate(angle);
+        edgeScratch.set(0, 0, length, 0);
+        drawEdgeShadow(canvas, edgeTransform, edgeScratch, elevation);
+    }
+
+    void drawCornerShadow(
+            @NonNull Canvas canvas,
+            @NonNull Matrix matrix,
+            float left,
+            float top,
+            float right,
+            float bottom,
+            int elevation,
+            float startAngle,
+            float sweepAngle) {
+        edgeScratch.set(left, top, right, bottom);
+        drawCornerShadow(canvas, matrix, edgeScratch, elevation, startAngle, sweepAngle);
+    }
+
+    @NonNull
+    private RadialGradient getCornerShader(float radius, int elevation, boolean insideBounds) {
+        long key =
+                ((long) Float.floatToIntBits(radius) << 32)
+                        | ((elevation & 0x7fffffffL) << 1)
+                        | (insideBounds ? 1 : 0);
+        for (int i = 0; i < CORNER_SHADER_CACHE_SIZE; i++) {
+            if (cornerShaders[i] != null && cornerShaderKeys[i] == key) {
+                return cornerShaders[i];
+            }
+        }
+
+        if (insideBounds) {
+            cornerColors[0] = 0;
+            cornerColors[1] = shadowEndColor;
+            cornerColors[2] = shadowMiddleColor;
+            cornerColors[3] = shadowStartColor;
+        } else {
+            cornerColors[0] = 0;
+            cornerColors[1] = shadowStartColor;
+            cornerColors[2] = shadowMiddleColor;
+            cornerColors[3] = shadowEndColor;
+        }
+        float startRatio = 1f - (elevation / radius);
+        float midRatio = startRatio + ((1f - startRatio) / 2f);
+        cornerPositions[1] = startRatio;
+        cornerPositions[2] = midRatio;
+        RadialGradient shader =
+                new RadialGradient(
+                        0, 0, radius, cornerColors, cornerPositions, Shader.TileMode.CLAMP);
+
+        int slot = nextCornerShaderSlot;
+        nextCornerShaderSlot = (slot + 1) % CORNER_SHADER_CACHE_SIZE;
+        cornerShaderKeys[slot] = key;
+        cornerShaders[slot] = shader;
+        return shader;
+    }
+
+    /**
+     * Draws the compat shadow of a round rect directly from its bounds and corner radius, producing
+     * the same corner and edge shadows the generic shape path would record.
+     */
+    public void drawRoundRectShadow(
+            @NonNull Canvas canvas, @NonNull RectF bounds, float radius, int elevation) {
+        float diameter = radius * 2;
+        RectF rect = roundRectScratch;
+        roundRectTransform.reset();
+
+        rect.set(bounds.left, bounds.top, bounds.left + diameter, bounds.top + diameter);
+        drawCornerShadow(canvas, roundRectTransform, rect, elevation, 180, 90);
+        rect.set(bounds.right - diameter, bounds.top, bounds.right, bounds.top + diameter);
+        drawCornerShadow(canvas, roundRectTransform, rect, elevation, 270, 90);
+        rect.set(bounds.right - diameter, bounds.bottom - diameter, bounds.right, bounds.bottom);
+        drawCornerShadow(canvas, roundRectTransform, rect, elevation, 0, 90);
+        rect.set(bounds.left, bounds.bottom - diameter, bounds.left + diameter, bounds.bottom);
+        drawCornerShadow(canvas, roundRectTransform, rect, elevation, 90, 90);
+
+        // Edges run clockwise with the shadow on their outer side.
+        float horizontal = bounds.width() - diameter;
+        float vertical = bounds.height() - diameter;
+        drawStraightEdgeShadow(canvas, bounds.left + radius, bounds.top, 0, horizontal, elevation);
+        drawStraightEdgeShadow(canvas, bounds.right, bounds.top + radius, 90, vertical, elevation);
+        drawStraightEdgeShadow(canvas, bounds.right - radius, bounds.bottom, 180, horizontal, elevation);
+        drawStraightEdgeShadow(canvas, bounds.left, bounds.bottom - radius, 270, vertical, elevation);
+    }
+
+    private void drawStraightEdgeShadow(
+            @NonNull Canvas canvas, float x, float y, float angle, float length, int elevation) {
+        if (length <= 0) {
+            return;
+        }
+        roundRectTransform.setTranslate(x, y);
+        roundRectTransform.preRotate(angle);
+        roundRectScratch.set(0, 0, length, 0);
+        drawEdgeShadow(canvas, roundRectTransform, roundRectScratch, elevation);
+    }
+
+    public int getShadowColor() {
+        return shadowColor;
+    }
+
     @NonNull
     public Paint getShadowPaint() {
         return shadowPaint;
@@ -4,6 +4,11 @@ import android.graphics.RectF;
 
 import androidx.annotation.Dimension;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.WeakHashMap;
 
 public class ShapeAppearanceModel {
 
@@ -177,7 +182,7 @@ public class ShapeAppearanceModel {
 
         @NonNull
         public ShapeAppearanceModel build() {
-            return new ShapeAppearanceModel(this);
+            return intern(new ShapeAppearanceModel(this));
         }
     }
 
@@ -186,18 +191,43 @@ public class ShapeAppearanceModel {
         return new ShapeAppearanceModel.Builder();
     }
 
-    RoundedCornerTreatment topLeftCorner;
-    RoundedCornerTreatment topRightCorner;
-    RoundedCornerTreatment bottomRightCorner;
-    RoundedCornerTreatment bottomLeftCorner;
-    CornerSize topLeftCornerSize;
-    CornerSize topRightCornerSize;
-    CornerSize bottomRightCornerSize;
-    CornerSize bottomLeftCornerSize;
-    EdgeTreatment topEdge;
-    EdgeTreatment rightEdge;
-    EdgeTreatment bottomEdge;
-    EdgeTreatment leftEdge;
+    // Equal models built through the builder share one instance, so identity checks and identity
+    // keyed caches downstream hit for models that were rebuilt from the same attributes.
+    private static final WeakHashMap<ShapeAppearanceModel, WeakReference<ShapeAppearanceModel>>
+            interned = new WeakHashMap<>();
+
+    @NonNull
+    static ShapeAppearanceModel intern(@NonNull ShapeAppearanceModel model) {
+        synchronized (interned) {
+            WeakReference<ShapeAppearanceModel> ref = interned.get(model);
+            ShapeAppearanceModel existing = ref != null ? ref.get() : null;
+            if (existing != null) {
+                return existing;
+            }
+            interned.put(model, new WeakReference<>(model));
+            return model;
+        }
+    }
+
+    final RoundedCornerTreatment topLeftCorner;
+    final RoundedCornerTreatment topRightCorner;
+    final RoundedCornerTreatment bottomRightCorner;
+    final RoundedCornerTreatment bottomLeftCorner;
+    final CornerSize topLeftCornerSize;
+    final CornerSize topRightCornerSize;
+    final CornerSize bottomRightCornerSize;
+    final CornerSize bottomLeftCornerSize;
+    final EdgeTreatment topEdge;
+    final EdgeTreatment rightEdge;
+    final EdgeTreatment bottomEdge;
+    final EdgeTreatment leftEdge;
+    private final boolean uniformRoundRect;
+    private final int hashCode;
+
+    @Nullable
+    private volatile StrokeInsetVariant strokeInsetVariant;
+    @Nullable
+    private volatile RoundRectResult roundRectResult;
 
     private ShapeAppearanceModel(@NonNull ShapeAppearanceModel.Builder builder) {
         topLeftCorner = builder.topLeftCorner;
@@ -214,6 +244,8 @@ public class ShapeAppearanceModel {
         rightEdge = builder.rightEdge;
         bottomEdge = builder.bottomEdge;
         leftEdge = builder.leftEdge;
+        uniformRoundRect = computeUniformRoundRect();
+        hashCode = computeHashCode();
     }
 
     public ShapeAppearanceModel() {
@@ -235,6 +267,34 @@ public class ShapeAppearanceModel {
         rightEdge = new EdgeTreatment();
         bottomEdge = new EdgeTreatment();
         leftEdge = new EdgeTreatment();
+        uniformRoundRect = computeUniformRoundRect();
+        hashCode = computeHashCode();
+    }
+
+    private boolean computeUniformRoundRect() {
+        return hasDefaultEdges()
+                && topLeftCorner.getClass() == RoundedCornerTreatment.class
+                && topLeftCorner.equals(topRightCorner)
+                && topLeftCorner.equals(bottomRightCorner)
+                && topLeftCorner.equals(bottomLeftCorner)
+                && topLeftCornerSize.equals(topRightCornerSize)
+                && topLeftCornerSize.equals(bottomRightCornerSize)
+                && topLeftCornerSize.equals(bottomLeftCornerSize);
+    }
+
+    private boolean hasDefaultEdges() {
+        return leftEdge.getClass().equals(EdgeTreatment.class)
+                && rightEdge.getClass().equals(EdgeTreatment.class)
+                && topEdge.getClass().equals(EdgeTreatment.class)
+                && bottomEdge.getClass().equals(EdgeTreatment.class);
+    }
+
+    /**
+     * Whether all four corners use the same plain rounded treatment and size and all edges are
+     * straight, so the shape is a round rect (or a circle) for any bounds.
+     */
+    public boolean isUniformRoundRect() {
+        return uniformRoundRect;
     }
 
     @NonNull
@@ -317,12 +377,63 @@ public class ShapeAppearanceModel {
                 .build();
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ShapeAppearanceModel)) {
+            return false;
+        }
+        ShapeAppearanceModel that = (ShapeAppearanceModel) o;
+        return topLeftCorner.equals(that.topLeftCorner)
+                && topRightCorner.equals(that.topRightCorner)
+                && bottomRightCorner.equals(that.bottomRightCorner)
+                && bottomLeftCorner.equals(that.bottomLeftCorner)
+                && topLeftCornerSize.equals(that.topLeftCornerSize)
+                && topRightCornerSize.equals(that.topRightCornerSize)
+                && bottomRightCornerSize.equals(that.bottomRightCornerSize)
+                && bottomLeftCornerSize.equals(that.bottomLeftCornerSize)
+                && topEdge.equals(that.topEdge)
+                && rightEdge.equals(that.rightEdge)
+                && bottomEdge.equals(that.bottomEdge)
+                && leftEdge.equals(that.leftEdge);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    private int computeHashCode() {
+        Object[] hashedFields = {
+                topLeftCorner,
+                topRightCorner,
+                bottomRightCorner,
+                bottomLeftCorner,
+                topLeftCornerSize,
+                topRightCornerSize,
+                bottomRightCornerSize,
+                bottomLeftCornerSize,
+                topEdge,
+                rightEdge,
+                bottomEdge,
+                leftEdge
+        };
+        return Arrays.hashCode(hashedFields);
+    }
+
     public boolean isRoundRect(@NonNull RectF bounds) {
-        boolean hasDefaultEdges =
-                leftEdge.getClass().equals(EdgeTreatment.class)
-                        && rightEdge.getClass().equals(EdgeTreatment.class)
-                        && topEdge.getClass().equals(EdgeTreatment.class)
-                        && bottomEdge.getClass().equals(EdgeTreatment.class);
+        if (uniformRoundRect) {
+            return true;
+        }
+        float width = bounds.width();
+        float height = bounds.height();
+        RoundRectResult result = roundRectResult;
+        if (result != null && result.width == width && result.height == height) {
+            return result.roundRect;
+        }
+        boolean hasDefaultEdges = hasDefaultEdges();
 
         float cornerSize = topLeftCornerSize.getCornerSize(bounds);
 
@@ -331,6 +442,63 @@ public class ShapeAppearanceModel {
                         && bottomLeftCornerSize.getCornerSize(bounds) == cornerSize
                         && bottomRightCornerSize.getCornerSize(bounds) == cornerSize;
 
-        return hasDefaultEdges && cornersHaveSameSize;
+        boolean roundRect = hasDefaultEdges && cornersHaveSameSize;
+        roundRectResult = new RoundRectResult(width, height, roundRect);
+        return roundRect;
+    }
+
+    /**
+     * Returns this model with every non relative corner size adjusted by {@code inset}. The result
+     * for the last inset is kept, so recalculating a stroke path doesn't build a new model.
+     */
+    @NonNull
+    ShapeAppearanceModel withStrokeInset(float inset) {
+        if (inset == 0) {
+            return this;
+        }
+        StrokeInsetVariant variant = strokeInsetVariant;
+        if (variant != null && variant.inset == inset) {
+            return variant.model;
+        }
+        ShapeAppearanceModel model =
+                toBuilder()
+                        .setTopLeftCornerSize(insetCornerSize(topLeftCornerSize, inset))
+                        .setTopRightCornerSize(insetCornerSize(topRightCornerSize, inset))
+                        .setBottomLeftCornerSize(insetCornerSize(bottomLeftCornerSize, inset))
+                        .setBottomRightCornerSize(insetCornerSize(bottomRightCornerSize, inset))
+                        .build();
+        strokeInsetVariant = new StrokeInsetVariant(inset, model);
+        return model;
+    }
+
+    @NonNull
+    private static CornerSize insetCornerSize(@NonNull CornerSize cornerSize, float inset) {
+        // Don't adjust for relative corners they will change by themselves when the bounds change.
+        return cornerSize instanceof RelativeCornerSize
+                ? cornerSize
+                : new AdjustedCornerSize(inset, cornerSize);
+    }
+
+    private static final class StrokeInsetVariant {
+        final float inset;
+        @NonNull
+        final ShapeAppearanceModel model;
+
+        StrokeInsetVariant(float inset, @NonNull ShapeAppearanceModel model) {
+            this.inset = inset;
+            this.model = model;
+        }
+    }
+
+    private static final class RoundRectResult {
+        final float width;
+        final float height;
+        final boolean roundRect;
+
+        RoundRectResult(float width, float height, boolean roundRect) {
+            this.width = width;
+            this.height = height;
+            this.roundRect = roundRect;
+        }
     }
 }
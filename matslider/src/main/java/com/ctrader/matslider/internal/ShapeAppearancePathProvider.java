@@ -8,14 +8,21 @@ import android.graphics.PointF;
 import android.graphics.RectF;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
+import android.util.LruCache;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
-import androidx.annotation.UiThread;
+
+import com.ctrader.matslider.internal.ShapePath.ShadowCompatOperation;
+
+import java.util.Arrays;
+import java.util.BitSet;
 
 public class ShapeAppearancePathProvider {
 
+  private static final int MAX_CACHED_PATHS = 32;
+
   private static class Lazy {
     static final ShapeAppearancePathProvider INSTANCE = new ShapeAppearancePathProvider();
   }
@@ -27,30 +34,24 @@ public class ShapeAppearancePathProvider {
     void onEdgePathCreated(ShapePath edgePath, Matrix transform, int count);
   }
 
-  private final ShapePath[] cornerPaths = new ShapePath[4];
-  private final Matrix[] cornerTransforms = new Matrix[4];
-  private final Matrix[] edgeTransforms = new Matrix[4];
+  private boolean edgeIntersectionCheckEnabled = true;
 
-  private final PointF pointF = new PointF();
-  private final Path overlappedEdgePath = new Path();
-  private final Path boundsPath = new Path();
-  private final ShapePath shapePath = new ShapePath();
-  private final float[] scratch = new float[2];
-  private final float[] scratch2 = new float[2];
-  private final Path edgePath = new Path();
-  private final Path cornerPath = new Path();
+  // LruCache is synchronized, so cached paths can be shared by every thread using this provider.
+  private final LruCache<PathKey, CachedPath> pathCache = new LruCache<>(MAX_CACHED_PATHS);
 
-  private boolean edgeIntersectionCheckEnabled = true;
+  // All mutable state used while building a path is confined to the calling thread, which lets
+  // shapes be computed in the background while the UI thread draws.
+  private final ThreadLocal<Scratch> scratchHolder =
+          new ThreadLocal<Scratch>() {
+            @Override
+            protected Scratch initialValue() {
+              return new Scratch();
+            }
+          };
 
   public ShapeAppearancePathProvider() {
-    for (int i = 0; i < 4; i++) {
-      cornerPaths[i] = new ShapePath();
-      cornerTransforms[i] = new Matrix();
-      edgeTransforms[i] = new Matrix();
-    }
   }
 
-  @UiThread
   @NonNull
   public static ShapeAppearancePathProvider getInstance() {
     return Lazy.INSTANCE;
@@ -62,7 +63,34 @@ public class ShapeAppearancePathProvider {
           float interpolation,
           RectF bounds,
           @NonNull Path path) {
-    calculatePath(shapeAppearanceModel, interpolation, bounds, null, path);
+    path.set(obtainPath(shapeAppearanceModel, interpolation, bounds).path);
+  }
+
+  /**
+   * Returns the path and compat shadow operations for the shape, computing them only if an equal
+   * shape with the same bounds and interpolation is not cached. The result is shared and must not
+   * be modified.
+   */
+  @NonNull
+  CachedPath obtainPath(
+          @NonNull ShapeAppearanceModel shapeAppearanceModel,
+          float interpolation,
+          @NonNull RectF bounds) {
+    PathKey key = new PathKey(shapeAppearanceModel, interpolation, bounds);
+    CachedPath cached = pathCache.get(key);
+    if (cached == null) {
+      Scratch scratch = scratchHolder.get();
+      cached = new CachedPath();
+      scratch.recordingPath = cached;
+      try {
+        calculatePath(
+                shapeAppearanceModel, interpolation, bounds, scratch.recordingListener, cached.path);
+      } finally {
+        scratch.recordingPath = null;
+      }
+      pathCache.put(key, cached);
+    }
+    return cached;
   }
 
   public void calculatePath(
@@ -71,19 +99,20 @@ public class ShapeAppearancePathProvider {
           RectF bounds,
           PathListener pathListener,
           @NonNull Path path) {
+    Scratch scratch = scratchHolder.get();
     path.rewind();
-    overlappedEdgePath.rewind();
-    boundsPath.rewind();
-    boundsPath.addRect(bounds, Direction.CW);
+    scratch.overlappedEdgePath.rewind();
+    scratch.boundsPath.rewind();
+    scratch.boundsPath.addRect(bounds, Direction.CW);
     ShapeAppearancePathSpec spec =
             new ShapeAppearancePathSpec(
-                    shapeAppearanceModel, interpolation, bounds, pathListener, path);
+                    shapeAppearanceModel, interpolation, bounds, pathListener, path, scratch);
 
     // Calculate the transformations (rotations and translations) necessary for each edge and
     // corner treatment.
     for (int index = 0; index < 4; index++) {
       setCornerPathAndTransform(spec, index);
-      setEdgePathAndTransform(index);
+      setEdgePathAndTransform(spec, index);
     }
 
     for (int index = 0; index < 4; index++) {
@@ -92,124 +121,130 @@ public class ShapeAppearancePathProvider {
     }
 
     path.close();
-    overlappedEdgePath.close();
+    scratch.overlappedEdgePath.close();
 
-    if (VERSION.SDK_INT >= VERSION_CODES.KITKAT && !overlappedEdgePath.isEmpty()) {
-      path.op(overlappedEdgePath, Op.UNION);
+    if (VERSION.SDK_INT >= VERSION_CODES.KITKAT && !scratch.overlappedEdgePath.isEmpty()) {
+      path.op(scratch.overlappedEdgePath, Op.UNION);
     }
   }
 
   private void setCornerPathAndTransform(@NonNull ShapeAppearancePathSpec spec, int index) {
+    Scratch s = spec.scratch;
     CornerSize size = getCornerSizeForIndex(index, spec.shapeAppearanceModel);
     getCornerTreatmentForIndex(index, spec.shapeAppearanceModel)
-            .getCornerPath(cornerPaths[index], 90, spec.interpolation, spec.bounds, size);
+            .getCornerPath(s.cornerPaths[index], 90, spec.interpolation, spec.bounds, size);
 
     float edgeAngle = angleOfEdge(index);
-    cornerTransforms[index].reset();
-    getCoordinatesOfCorner(index, spec.bounds, pointF);
-    cornerTransforms[index].setTranslate(pointF.x, pointF.y);
-    cornerTransforms[index].preRotate(edgeAngle);
+    s.cornerTransforms[index].reset();
+    getCoordinatesOfCorner(index, spec.bounds, s.pointF);
+    s.cornerTransforms[index].setTranslate(s.pointF.x, s.pointF.y);
+    s.cornerTransforms[index].preRotate(edgeAngle);
   }
 
-  private void setEdgePathAndTransform(int index) {
-    scratch[0] = cornerPaths[index].getEndX();
-    scratch[1] = cornerPaths[index].getEndY();
-    cornerTransforms[index].mapPoints(scratch);
+  private void setEdgePathAndTransform(@NonNull ShapeAppearancePathSpec spec, int index) {
+    Scratch s = spec.scratch;
+    s.scratch[0] = s.cornerPaths[index].getEndX();
+    s.scratch[1] = s.cornerPaths[index].getEndY();
+    s.cornerTransforms[index].mapPoints(s.scratch);
     float edgeAngle = angleOfEdge(index);
-    edgeTransforms[index].reset();
-    edgeTransforms[index].setTranslate(scratch[0], scratch[1]);
-    edgeTransforms[index].preRotate(edgeAngle);
+    s.edgeTransforms[index].reset();
+    s.edgeTransforms[index].setTranslate(s.scratch[0], s.scratch[1]);
+    s.edgeTransforms[index].preRotate(edgeAngle);
   }
 
   private void appendCornerPath(@NonNull ShapeAppearancePathSpec spec, int index) {
-    scratch[0] = cornerPaths[index].getStartX();
-    scratch[1] = cornerPaths[index].getStartY();
-    cornerTransforms[index].mapPoints(scratch);
+    Scratch s = spec.scratch;
+    s.scratch[0] = s.cornerPaths[index].getStartX();
+    s.scratch[1] = s.cornerPaths[index].getStartY();
+    s.cornerTransforms[index].mapPoints(s.scratch);
     if (index == 0) {
-      spec.path.moveTo(scratch[0], scratch[1]);
+      spec.path.moveTo(s.scratch[0], s.scratch[1]);
     } else {
-      spec.path.lineTo(scratch[0], scratch[1]);
+      spec.path.lineTo(s.scratch[0], s.scratch[1]);
     }
-    cornerPaths[index].applyToPath(cornerTransforms[index], spec.path);
+    s.cornerPaths[index].applyToPath(s.cornerTransforms[index], spec.path);
     if (spec.pathListener != null) {
-      spec.pathListener.onCornerPathCreated(cornerPaths[index], cornerTransforms[index], index);
+      spec.pathListener.onCornerPathCreated(
+              s.cornerPaths[index], s.cornerTransforms[index], index);
     }
   }
 
   private void appendEdgePath(@NonNull ShapeAppearancePathSpec spec, int index) {
+    Scratch s = spec.scratch;
     int nextIndex = (index + 1) % 4;
-    scratch[0] = cornerPaths[index].getEndX();
-    scratch[1] = cornerPaths[index].getEndY();
-    cornerTransforms[index].mapPoints(scratch);
+    s.scratch[0] = s.cornerPaths[index].getEndX();
+    s.scratch[1] = s.cornerPaths[index].getEndY();
+    s.cornerTransforms[index].mapPoints(s.scratch);
 
-    scratch2[0] = cornerPaths[nextIndex].getStartX();
-    scratch2[1] = cornerPaths[nextIndex].getStartY();
-    cornerTransforms[nextIndex].mapPoints(scratch2);
+    s.scratch2[0] = s.cornerPaths[nextIndex].getStartX();
+    s.scratch2[1] = s.cornerPaths[nextIndex].getStartY();
+    s.cornerTransforms[nextIndex].mapPoints(s.scratch2);
 
-    float edgeLength = (float) Math.hypot(scratch[0] - scratch2[0], scratch[1] - scratch2[1]);
+    float edgeLength =
+            (float) Math.hypot(s.scratch[0] - s.scratch2[0], s.scratch[1] - s.scratch2[1]);
     // TODO(b/121352029): Remove this -.001f that is currently needed to handle rounding errors
     edgeLength = Math.max(edgeLength - .001f, 0);
-    float center = getEdgeCenterForIndex(spec.bounds, index);
-    shapePath.reset(0, 0);
+    float center = getEdgeCenterForIndex(s, spec.bounds, index);
+    s.shapePath.reset(0, 0);
     EdgeTreatment edgeTreatment = getEdgeTreatmentForIndex(index, spec.shapeAppearanceModel);
-    edgeTreatment.getEdgePath(edgeLength, center, spec.interpolation, shapePath);
-    edgePath.reset();
-    shapePath.applyToPath(edgeTransforms[index], edgePath);
+    edgeTreatment.getEdgePath(edgeLength, center, spec.interpolation, s.shapePath);
+    s.edgePath.reset();
+    s.shapePath.applyToPath(s.edgeTransforms[index], s.edgePath);
 
     if (edgeIntersectionCheckEnabled
             && VERSION.SDK_INT >= VERSION_CODES.KITKAT
             && (edgeTreatment.forceIntersection()
-            || pathOverlapsCorner(edgePath, index)
-            || pathOverlapsCorner(edgePath, nextIndex))) {
+            || pathOverlapsCorner(s, s.edgePath, index)
+            || pathOverlapsCorner(s, s.edgePath, nextIndex))) {
 
       // Calculate the difference between the edge and the bounds to calculate the part of the edge
       // outside of the bounds of the shape.
-      edgePath.op(edgePath, boundsPath, Op.DIFFERENCE);
+      s.edgePath.op(s.edgePath, s.boundsPath, Op.DIFFERENCE);
 
       // Add a line to the path between the previous corner and this edge.
       // TODO(b/144784590): handle the shadow as well.
-      scratch[0] = shapePath.getStartX();
-      scratch[1] = shapePath.getStartY();
-      edgeTransforms[index].mapPoints(scratch);
-      overlappedEdgePath.moveTo(scratch[0], scratch[1]);
+      s.scratch[0] = s.shapePath.getStartX();
+      s.scratch[1] = s.shapePath.getStartY();
+      s.edgeTransforms[index].mapPoints(s.scratch);
+      s.overlappedEdgePath.moveTo(s.scratch[0], s.scratch[1]);
 
       // Add this to the overlappedEdgePath which will be unioned later.
-      shapePath.applyToPath(edgeTransforms[index], overlappedEdgePath);
+      s.shapePath.applyToPath(s.edgeTransforms[index], s.overlappedEdgePath);
     } else {
-      shapePath.applyToPath(edgeTransforms[index], spec.path);
+      s.shapePath.applyToPath(s.edgeTransforms[index], spec.path);
     }
 
     if (spec.pathListener != null) {
-      spec.pathListener.onEdgePathCreated(shapePath, edgeTransforms[index], index);
+      spec.pathListener.onEdgePathCreated(s.shapePath, s.edgeTransforms[index], index);
     }
   }
 
   @RequiresApi(VERSION_CODES.KITKAT)
-  private boolean pathOverlapsCorner(Path edgePath, int index) {
-    cornerPath.reset();
-    cornerPaths[index].applyToPath(cornerTransforms[index], cornerPath);
+  private boolean pathOverlapsCorner(@NonNull Scratch s, Path edgePath, int index) {
+    s.cornerPath.reset();
+    s.cornerPaths[index].applyToPath(s.cornerTransforms[index], s.cornerPath);
 
-    RectF bounds = new RectF();
+    RectF bounds = s.overlapBounds;
     edgePath.computeBounds(bounds, /* exact = */ true);
-    cornerPath.computeBounds(bounds, /* exact = */ true);
-    edgePath.op(cornerPath, Op.INTERSECT);
+    s.cornerPath.computeBounds(bounds, /* exact = */ true);
+    edgePath.op(s.cornerPath, Op.INTERSECT);
     edgePath.computeBounds(bounds, /* exact = */ true);
 
     return !bounds.isEmpty() || (bounds.width() > 1 && bounds.height() > 1);
   }
 
-  private float getEdgeCenterForIndex(@NonNull RectF bounds, int index) {
-    scratch[0] = cornerPaths[index].endX;
-    scratch[1] = cornerPaths[index].endY;
-    cornerTransforms[index].mapPoints(scratch);
+  private float getEdgeCenterForIndex(@NonNull Scratch s, @NonNull RectF bounds, int index) {
+    s.scratch[0] = s.cornerPaths[index].endX;
+    s.scratch[1] = s.cornerPaths[index].endY;
+    s.cornerTransforms[index].mapPoints(s.scratch);
     switch (index) {
       case 1:
       case 3:
-        return Math.abs(bounds.centerX() - scratch[0]);
+        return Math.abs(bounds.centerX() - s.scratch[0]);
       case 2:
       case 0:
       default:
-        return Math.abs(bounds.centerY() - scratch[1]);
+        return Math.abs(bounds.centerY() - s.scratch[1]);
     }
   }
 
@@ -280,6 +315,109 @@ public class ShapeAppearancePathProvider {
     return 90 * (index + 1 % 4);
   }
 
+  static final class CachedPath {
+
+    final Path path = new Path();
+    final ShadowCompatOperation[] cornerShadowOperations = new ShadowCompatOperation[4];
+    final ShadowCompatOperation[] edgeShadowOperations = new ShadowCompatOperation[4];
+    final BitSet containsIncompatibleShadowOp = new BitSet(8);
+  }
+
+  private static final class Scratch {
+
+    final ShapePath[] cornerPaths = new ShapePath[4];
+    final Matrix[] cornerTransforms = new Matrix[4];
+    final Matrix[] edgeTransforms = new Matrix[4];
+
+    final PointF pointF = new PointF();
+    final Path overlappedEdgePath = new Path();
+    final Path boundsPath = new Path();
+    final ShapePath shapePath = new ShapePath();
+    final float[] scratch = new float[2];
+    final float[] scratch2 = new float[2];
+    final Path edgePath = new Path();
+    final Path cornerPath = new Path();
+    final RectF overlapBounds = new RectF();
+
+    @Nullable
+    CachedPath recordingPath;
+    final PathListener recordingListener =
+            new PathListener() {
+              @Override
+              public void onCornerPathCreated(ShapePath cornerPath, Matrix transform, int count) {
+                recordingPath.containsIncompatibleShadowOp.set(
+                        count, cornerPath.containsIncompatibleShadowOp());
+                recordingPath.cornerShadowOperations[count] =
+                        cornerPath.createShadowCompatOperation(transform);
+              }
+
+              @Override
+              public void onEdgePathCreated(ShapePath edgePath, Matrix transform, int count) {
+                recordingPath.containsIncompatibleShadowOp.set(
+                        count + 4, edgePath.containsIncompatibleShadowOp());
+                recordingPath.edgeShadowOperations[count] =
+                        edgePath.createShadowCompatOperation(transform);
+              }
+            };
+
+    Scratch() {
+      for (int i = 0; i < 4; i++) {
+        cornerPaths[i] = new ShapePath();
+        cornerTransforms[i] = new Matrix();
+        edgeTransforms[i] = new Matrix();
+      }
+    }
+  }
+
+  private static final class PathKey {
+
+    @NonNull
+    private final ShapeAppearanceModel shapeAppearanceModel;
+    private final float interpolation;
+    private final float left;
+    private final float top;
+    private final float right;
+    private final float bottom;
+    private final int hashCode;
+
+    PathKey(
+            @NonNull ShapeAppearanceModel shapeAppearanceModel,
+            float interpolation,
+            @NonNull RectF bounds) {
+      this.shapeAppearanceModel = shapeAppearanceModel;
+      this.interpolation = interpolation;
+      this.left = bounds.left;
+      this.top = bounds.top;
+      this.right = bounds.right;
+      this.bottom = bounds.bottom;
+      Object[] hashedFields = {shapeAppearanceModel, interpolation, left, top, right, bottom};
+      hashCode = Arrays.hashCode(hashedFields);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof PathKey)) {
+        return false;
+      }
+      PathKey that = (PathKey) o;
+      return hashCode == that.hashCode
+              && interpolation == that.interpolation
+              && left == that.left
+              && top == that.top
+              && right == that.right
+              && bottom == that.bottom
+              && shapeAppearanceModel.equals(that.shapeAppearanceModel);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
   /**
    * Necessary information to map a {@link ShapeAppearanceModel} into a Path.
    */
@@ -297,17 +435,22 @@ public class ShapeAppearancePathProvider {
 
     public final float interpolation;
 
+    @NonNull
+    final Scratch scratch;
+
     ShapeAppearancePathSpec(
             @NonNull ShapeAppearanceModel shapeAppearanceModel,
             float interpolation,
             RectF bounds,
             @Nullable PathListener pathListener,
-            Path path) {
+            Path path,
+            @NonNull Scratch scratch) {
       this.pathListener = pathListener;
       this.shapeAppearanceModel = shapeAppearanceModel;
       this.interpolation = interpolation;
       this.bounds = bounds;
       this.path = path;
+      this.scratch = scratch;
     }
   }
 }
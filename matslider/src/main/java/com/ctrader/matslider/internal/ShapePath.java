@@ -7,8 +7,7 @@ import android.graphics.RectF;
 
 import androidx.annotation.NonNull;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 
 public class ShapePath {
@@ -16,6 +15,11 @@ public class ShapePath {
     private static final float ANGLE_UP = 270;
     protected static final float ANGLE_LEFT = 180;
 
+    // Path commands: LINE x y, ARC left top right bottom startAngle sweepAngle.
+    // Shadow commands: LINE startX startY x y, ARC left top right bottom startAngle sweepAngle.
+    private static final byte COMMAND_LINE = 0;
+    private static final byte COMMAND_ARC = 1;
+
     @Deprecated
     public float startX;
     @Deprecated
@@ -29,10 +33,14 @@ public class ShapePath {
     @Deprecated
     public float endShadowAngle;
 
-    private final List<PathOperation> operations = new ArrayList<>();
-    private final List<ShadowCompatOperation> shadowCompatOperations = new ArrayList<>();
+    private final CommandBuffer operations = new CommandBuffer();
+    private final CommandBuffer shadowCompatOperations = new CommandBuffer();
     private boolean containsIncompatibleShadowOp;
 
+    private final Matrix inverse = new Matrix();
+    private final RectF arcBounds = new RectF();
+    private final float[] point = new float[2];
+
     public ShapePath() {
         reset(0, 0);
     }
@@ -49,50 +57,37 @@ public class ShapePath {
         setEndY(startY);
         setCurrentShadowAngle(shadowStartAngle);
         setEndShadowAngle((shadowStartAngle + shadowSweepAngle) % 360);
-        this.operations.clear();
-        this.shadowCompatOperations.clear();
+        this.operations.rewind();
+        this.shadowCompatOperations.rewind();
         this.containsIncompatibleShadowOp = false;
     }
 
     public void lineTo(float x, float y) {
-        PathLineOperation operation = new PathLineOperation();
-        operation.x = x;
-        operation.y = y;
-        operations.add(operation);
-
-        LineShadowOperation shadowOperation = new LineShadowOperation(operation, getEndX(), getEndY());
+        operations.add(COMMAND_LINE, x, y);
 
         // The previous endX and endY is the starting point for this shadow operation.
-        addShadowCompatOperation(
-                shadowOperation,
-                ANGLE_UP + shadowOperation.getAngle(),
-                ANGLE_UP + shadowOperation.getAngle());
+        float angle = ANGLE_UP + lineAngle(getEndX(), getEndY(), x, y);
+        addConnectingShadowIfNecessary(angle);
+        shadowCompatOperations.add(COMMAND_LINE, getEndX(), getEndY(), x, y);
+        setCurrentShadowAngle(angle);
 
         setEndX(x);
         setEndY(y);
     }
 
-
-
-
-
     public void addArc(
             float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
-        PathArcOperation operation = new PathArcOperation(left, top, right, bottom);
-        operation.setStartAngle(startAngle);
-        operation.setSweepAngle(sweepAngle);
-        operations.add(operation);
+        operations.add(COMMAND_ARC, left, top, right, bottom, startAngle, sweepAngle);
 
-        ArcShadowOperation arcShadowOperation = new ArcShadowOperation(operation);
         float endAngle = startAngle + sweepAngle;
         // Flip the startAngle and endAngle when drawing the shadow inside the bounds. They represent
         // the angles from the center of the circle to the start or end of the arc, respectively. When
         // the shadow is drawn inside the arc, it is going the opposite direction.
         boolean drawShadowInsideBounds = sweepAngle < 0;
-        addShadowCompatOperation(
-                arcShadowOperation,
-                drawShadowInsideBounds ? (180 + startAngle) % 360 : startAngle,
-                drawShadowInsideBounds ? (180 + endAngle) % 360 : endAngle);
+        addConnectingShadowIfNecessary(
+                drawShadowInsideBounds ? (180 + startAngle) % 360 : startAngle);
+        shadowCompatOperations.add(COMMAND_ARC, left, top, right, bottom, startAngle, sweepAngle);
+        setCurrentShadowAngle(drawShadowInsideBounds ? (180 + endAngle) % 360 : endAngle);
 
         setEndX(
                 (left + right) * 0.5f
@@ -103,9 +98,25 @@ public class ShapePath {
     }
 
     public void applyToPath(Matrix transform, Path path) {
-        for (int i = 0, size = operations.size(); i < size; i++) {
-            PathOperation operation = operations.get(i);
-            operation.applyToPath(transform, path);
+        CommandBuffer buffer = operations;
+        float[] operands = buffer.operands;
+        int o = 0;
+        for (int i = 0; i < buffer.commandCount; i++) {
+            if (buffer.commands[i] == COMMAND_LINE) {
+                point[0] = operands[o];
+                point[1] = operands[o + 1];
+                transform.mapPoints(point);
+                path.lineTo(point[0], point[1]);
+                o += 2;
+            } else {
+                // Arcs are appended in local coordinates so rotated transforms keep their shape.
+                transform.invert(inverse);
+                path.transform(inverse);
+                arcBounds.set(operands[o], operands[o + 1], operands[o + 2], operands[o + 3]);
+                path.arcTo(arcBounds, operands[o + 4], operands[o + 5], false);
+                path.transform(transform);
+                o += 6;
+            }
         }
     }
 
@@ -113,24 +124,7 @@ public class ShapePath {
     ShadowCompatOperation createShadowCompatOperation(final Matrix transform) {
         // If the shadowCompatOperations don't end on the desired endShadowAngle, add an arc to do so.
         addConnectingShadowIfNecessary(getEndShadowAngle());
-        final Matrix transformCopy = new Matrix(transform);
-        final List<ShadowCompatOperation> operations = new ArrayList<>(shadowCompatOperations);
-        return new ShadowCompatOperation() {
-            @Override
-            public void draw(
-                    Matrix matrix, ShadowRenderer shadowRenderer, int shadowElevation, Canvas canvas) {
-                for (ShadowCompatOperation op : operations) {
-                    op.draw(transformCopy, shadowRenderer, shadowElevation, canvas);
-                }
-            }
-        };
-    }
-
-    private void addShadowCompatOperation(
-            ShadowCompatOperation shadowOperation, float startShadowAngle, float endShadowAngle) {
-        addConnectingShadowIfNecessary(startShadowAngle);
-        shadowCompatOperations.add(shadowOperation);
-        setCurrentShadowAngle(endShadowAngle);
+        return new ShadowCompatOperation(shadowCompatOperations, transform);
     }
 
     boolean containsIncompatibleShadowOp() {
@@ -147,14 +141,21 @@ public class ShapePath {
             // Shadows are actually overlapping, so don't draw anything.
             return;
         }
-        PathArcOperation pathArcOperation =
-                new PathArcOperation(getEndX(), getEndY(), getEndX(), getEndY());
-        pathArcOperation.setStartAngle(getCurrentShadowAngle());
-        pathArcOperation.setSweepAngle(shadowSweep);
-        shadowCompatOperations.add(new ArcShadowOperation(pathArcOperation));
+        shadowCompatOperations.add(
+                COMMAND_ARC,
+                getEndX(),
+                getEndY(),
+                getEndX(),
+                getEndY(),
+                getCurrentShadowAngle(),
+                shadowSweep);
         setCurrentShadowAngle(nextShadowAngle);
     }
 
+    private static float lineAngle(float startX, float startY, float x, float y) {
+        return (float) Math.toDegrees(Math.atan((y - startY) / (x - startX)));
+    }
+
     float getStartX() {
         return startX;
     }
@@ -203,221 +204,125 @@ public class ShapePath {
         this.endShadowAngle = endShadowAngle;
     }
 
-    abstract static class ShadowCompatOperation {
-
-        static final Matrix IDENTITY_MATRIX = new Matrix();
+    /**
+     * Growable list of commands with their float operands. Rewinding keeps the arrays for reuse.
+     */
+    private static final class CommandBuffer {
 
+        byte[] commands;
+        int commandCount;
+        float[] operands;
+        int operandCount;
 
-        public final void draw(ShadowRenderer shadowRenderer, int shadowElevation, Canvas canvas) {
-            draw(IDENTITY_MATRIX, shadowRenderer, shadowElevation, canvas);
+        CommandBuffer() {
+            this(new byte[8], new float[32]);
         }
 
-
-        public abstract void draw(
-                Matrix transform, ShadowRenderer shadowRenderer, int shadowElevation, Canvas canvas);
-    }
-
-
-    static class LineShadowOperation extends ShadowCompatOperation {
-
-        private final PathLineOperation operation;
-        private final float startX;
-        private final float startY;
-
-        public LineShadowOperation(PathLineOperation operation, float startX, float startY) {
-            this.operation = operation;
-            this.startX = startX;
-            this.startY = startY;
+        private CommandBuffer(byte[] commands, float[] operands) {
+            this.commands = commands;
+            this.operands = operands;
         }
 
-        @Override
-        public void draw(
-                Matrix transform,
-                @NonNull ShadowRenderer shadowRenderer,
-                int shadowElevation,
-                @NonNull Canvas canvas) {
-            final float height = operation.y - startY;
-            final float width = operation.x - startX;
-            final RectF rect = new RectF(0, 0, (float) Math.hypot(height, width), 0);
-            final Matrix edgeTransform = new Matrix(transform);
-            edgeTransform.preTranslate(startX, startY);
-            edgeTransform.preRotate(getAngle());
-            shadowRenderer.drawEdgeShadow(canvas, edgeTransform, rect, shadowElevation);
+        void rewind() {
+            commandCount = 0;
+            operandCount = 0;
         }
 
-        float getAngle() {
-            return (float) Math.toDegrees(Math.atan((operation.y - startY) / (operation.x - startX)));
+        void add(byte command, float a, float b) {
+            ensureCapacity(2);
+            commands[commandCount++] = command;
+            operands[operandCount++] = a;
+            operands[operandCount++] = b;
         }
-    }
-
-
-    static class ArcShadowOperation extends ShadowCompatOperation {
 
-        private final PathArcOperation operation;
-
-        public ArcShadowOperation(PathArcOperation operation) {
-            this.operation = operation;
-        }
-
-        @Override
-        public void draw(
-                Matrix transform,
-                @NonNull ShadowRenderer shadowRenderer,
-                int shadowElevation,
-                @NonNull Canvas canvas) {
-            float startAngle = operation.getStartAngle();
-            float sweepAngle = operation.getSweepAngle();
-            RectF rect =
-                    new RectF(
-                            operation.getLeft(), operation.getTop(), operation.getRight(), operation.getBottom());
-            shadowRenderer.drawCornerShadow(
-                    canvas, transform, rect, shadowElevation, startAngle, sweepAngle);
+        void add(byte command, float a, float b, float c, float d) {
+            ensureCapacity(4);
+            commands[commandCount++] = command;
+            operands[operandCount++] = a;
+            operands[operandCount++] = b;
+            operands[operandCount++] = c;
+            operands[operandCount++] = d;
         }
-    }
 
-
-    public abstract static class PathOperation {
-
-        protected final Matrix matrix = new Matrix();
-
-        public abstract void applyToPath(Matrix transform, Path path);
-    }
-
-
-    public static class PathLineOperation extends PathOperation {
-        private float x;
-        private float y;
-
-        @Override
-        public void applyToPath(@NonNull Matrix transform, @NonNull Path path) {
-            Matrix inverse = matrix;
-            transform.invert(inverse);
-            path.transform(inverse);
-            path.lineTo(x, y);
-            path.transform(transform);
+        void add(byte command, float a, float b, float c, float d, float e, float f) {
+            ensureCapacity(6);
+            commands[commandCount++] = command;
+            operands[operandCount++] = a;
+            operands[operandCount++] = b;
+            operands[operandCount++] = c;
+            operands[operandCount++] = d;
+            operands[operandCount++] = e;
+            operands[operandCount++] = f;
         }
-    }
-
 
-    public static class PathQuadOperation extends PathOperation {
-        @Deprecated
-        public float controlX;
-        @Deprecated
-        public float controlY;
-        @Deprecated
-        public float endX;
-        @Deprecated
-        public float endY;
-
-        @Override
-        public void applyToPath(@NonNull Matrix transform, @NonNull Path path) {
-            Matrix inverse = matrix;
-            transform.invert(inverse);
-            path.transform(inverse);
-            path.quadTo(getControlX(), getControlY(), getEndX(), getEndY());
-            path.transform(transform);
+        @NonNull
+        CommandBuffer copy() {
+            CommandBuffer copy =
+                    new CommandBuffer(
+                            Arrays.copyOf(commands, commandCount), Arrays.copyOf(operands, operandCount));
+            copy.commandCount = commandCount;
+            copy.operandCount = operandCount;
+            return copy;
         }
 
-        private float getEndX() {
-            return endX;
-        }
-
-
-        private float getControlY() {
-            return controlY;
-        }
-
-
-        private float getEndY() {
-            return endY;
-        }
-
-
-        private float getControlX() {
-            return controlX;
+        private void ensureCapacity(int operandsNeeded) {
+            if (commandCount == commands.length) {
+                commands = Arrays.copyOf(commands, Math.max(8, commands.length * 2));
+            }
+            if (operandCount + operandsNeeded > operands.length) {
+                operands =
+                        Arrays.copyOf(operands, Math.max(operandCount + operandsNeeded, operands.length * 2));
+            }
         }
-
     }
 
-    public static class PathArcOperation extends PathOperation {
-        private static final RectF rectF = new RectF();
-
-        @Deprecated
-        public float left;
-        @Deprecated
-        public float top;
-        @Deprecated
-        public float right;
-        @Deprecated
-        public float bottom;
-        @Deprecated
-        public float startAngle;
-        @Deprecated
-        public float sweepAngle;
-
-        public PathArcOperation(float left, float top, float right, float bottom) {
-            setLeft(left);
-            setTop(top);
-            setRight(right);
-            setBottom(bottom);
-        }
-
-        @Override
-        public void applyToPath(@NonNull Matrix transform, @NonNull Path path) {
-            Matrix inverse = matrix;
-            transform.invert(inverse);
-            path.transform(inverse);
-            rectF.set(getLeft(), getTop(), getRight(), getBottom());
-            path.arcTo(rectF, getStartAngle(), getSweepAngle(), false);
-            path.transform(transform);
-        }
-
-        private float getLeft() {
-            return left;
-        }
-
-        private float getTop() {
-            return top;
-        }
-
-        private float getRight() {
-            return right;
-        }
-
-        private float getBottom() {
-            return bottom;
-        }
-
-        private void setLeft(float left) {
-            this.left = left;
-        }
-
-        private void setTop(float top) {
-            this.top = top;
-        }
+    /**
+     * Snapshot of the shadow commands of a {@link ShapePath} together with its transform. The
+     * snapshot is immutable and may be drawn from any thread; scratch objects for the replay belong
+     * to the {@link ShadowRenderer}.
+     */
+    static final class ShadowCompatOperation {
 
-        private void setRight(float right) {
-            this.right = right;
-        }
-
-        private void setBottom(float bottom) {
-            this.bottom = bottom;
-        }
-
-        private float getStartAngle() {
-            return startAngle;
-        }
+        private final CommandBuffer commands;
+        private final Matrix transform;
 
-        private float getSweepAngle() {
-            return sweepAngle;
+        ShadowCompatOperation(@NonNull CommandBuffer commands, @NonNull Matrix transform) {
+            this.commands = commands.copy();
+            this.transform = new Matrix(transform);
         }
 
-        private void setStartAngle(float startAngle) {
-            this.startAngle = startAngle;
-        }
-
-        private void setSweepAngle(float sweepAngle) {
-            this.sweepAngle = sweepAngle;
+        public void draw(ShadowRenderer shadowRenderer, int shadowElevation, Canvas canvas) {
+            float[] operands = commands.operands;
+            int o = 0;
+            for (int i = 0; i < commands.commandCount; i++) {
+                if (commands.commands[i] == COMMAND_LINE) {
+                    float startX = operands[o];
+                    float startY = operands[o + 1];
+                    float x = operands[o + 2];
+                    float y = operands[o + 3];
+                    shadowRenderer.drawLineShadow(
+                            canvas,
+                            transform,
+                            startX,
+                            startY,
+                            (float) Math.hypot(y - startY, x - startX),
+                            lineAngle(startX, startY, x, y),
+                            shadowElevation);
+                    o += 4;
+                } else {
+                    shadowRenderer.drawCornerShadow(
+                            canvas,
+                            transform,
+                            operands[o],
+                            operands[o + 1],
+                            operands[o + 2],
+                            operands[o + 3],
+                            shadowElevation,
+                            operands[o + 4],
+                            operands[o + 5]);
+                    o += 6;
+                }
+            }
         }
     }
 }
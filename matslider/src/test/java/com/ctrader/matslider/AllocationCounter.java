@@ -0,0 +1,35 @@
+package com.ctrader.matslider;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes allocated by the current thread. Relies on the HotSpot extension of
+ * {@link java.lang.management.ThreadMXBean}, which the unit test JVM provides.
+ */
+final class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private AllocationCounter() {
+    }
+
+    static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Runs {@code task} {@code iterations} times and returns the bytes it allocated, excluding what
+     * reading the counter itself costs.
+     */
+    static long measure(Runnable task, int iterations) {
+        long overheadStart = allocatedBytes();
+        long overhead = allocatedBytes() - overheadStart;
+
+        long start = allocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return Math.max(0, allocatedBytes() - start - overhead);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ctrader.matslider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BaseSliderDispatchTest {
+
+    @Test
+    public void valuesChangedFromListenerDoNotOverwriteOuterBatch() {
+        final RangeSlider slider = TestSliders.createLaidOut(20f, 50f, 80f);
+        final float[] outerValues = new float[3];
+        final int[] outerIndices = new int[3];
+        final int[] outerCount = new int[1];
+        slider.addOnValuesChangeListener(
+                new RangeSlider.OnValuesChangeListener() {
+                    private boolean nested;
+
+                    @Override
+                    public void onValuesChange(
+                            @NonNull RangeSlider s,
+                            @NonNull float[] values,
+                            @NonNull int[] changedIndices,
+                            int changedCount,
+                            boolean fromUser) {
+                        if (nested) {
+                            return;
+                        }
+                        nested = true;
+                        s.setValues(new float[] {40f});
+                        System.arraycopy(values, 0, outerValues, 0, values.length);
+                        System.arraycopy(changedIndices, 0, outerIndices, 0, changedCount);
+                        outerCount[0] = changedCount;
+                    }
+                });
+
+        slider.setValues(new float[] {10f, 60f, 90f});
+
+        assertEquals(3, outerCount[0]);
+        assertArrayEquals(new int[] {0, 1, 2}, outerIndices);
+        assertArrayEquals(new float[] {10f, 60f, 90f}, outerValues, 0f);
+    }
+}
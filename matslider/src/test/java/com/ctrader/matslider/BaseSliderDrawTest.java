@@ -0,0 +1,66 @@
+package com.ctrader.matslider;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BaseSliderDrawTest {
+
+    private static final int ITERATIONS = 1000;
+
+    private RangeSlider slider;
+    private NoOpCanvas canvas;
+
+    @Before
+    public void setUp() {
+        slider = TestSliders.createLaidOut(20f, 50f, 80f);
+        canvas = new NoOpCanvas();
+        // The first draws validate the configuration and render the thumb shadow layer.
+        for (int i = 0; i < 10; i++) {
+            slider.onDraw(canvas);
+        }
+    }
+
+    @Test
+    public void redrawDoesNotAllocate() {
+        long bytes =
+                AllocationCounter.measure(
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                slider.onDraw(canvas);
+                            }
+                        },
+                        ITERATIONS);
+
+        assertEquals(0, bytes);
+    }
+
+    @Test
+    public void redrawAfterValueChangeDoesNotAllocate() {
+        final float[] first = {20f, 50f, 80f};
+        final float[] second = {10f, 60f, 90f};
+        final long[] bytes = new long[1];
+        for (int i = 0; i < ITERATIONS; i++) {
+            // Values are replaced outside of the measured region; only drawing is counted.
+            slider.setValues(i % 2 == 0 ? second : first);
+            bytes[0] +=
+                    AllocationCounter.measure(
+                            new Runnable() {
+                                @Override
+                                public void run() {
+                                    slider.onDraw(canvas);
+                                }
+                            },
+                            1);
+        }
+
+        assertEquals(0, bytes[0]);
+    }
+}
@@ -0,0 +1,137 @@
+package com.ctrader.matslider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import android.view.MotionEvent;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BaseSliderFixedPointTest {
+
+    private static final float CENTER_X = TestSliders.WIDTH / 2f;
+
+    @Test
+    public void scaledBoundsKeepDigitsFloatsWouldLose() {
+        RangeSlider slider = new RangeSlider(TestSliders.themedContext());
+        slider.setDecimalDigits(2);
+        slider.setScaledValueFrom(0);
+        slider.setScaledValueTo(123456789);
+        slider.setScaledStepSize(1);
+        slider.setScaledValues(new long[] {123456788, 123456789});
+        TestSliders.layout(slider);
+
+        slider.onDraw(new NoOpCanvas());
+
+        assertEquals(123456789, slider.getScaledValueTo());
+        assertEquals(1, slider.getScaledStepSize());
+        assertEquals(123456788, slider.getScaledValue(0));
+        assertEquals(123456789, slider.getScaledValue(1));
+    }
+
+    @Test
+    public void moreDecimalDigitsRescaleExactly() {
+        RangeSlider slider = new RangeSlider(TestSliders.themedContext());
+        slider.setDecimalDigits(2);
+        slider.setScaledValueFrom(0);
+        slider.setScaledValueTo(123456789);
+        slider.setScaledStepSize(1);
+        slider.setScaledValues(new long[] {123456789});
+
+        slider.setDecimalDigits(3);
+
+        assertEquals(1234567890, slider.getScaledValueTo());
+        assertEquals(10, slider.getScaledStepSize());
+        assertEquals(1234567890, slider.getScaledValue(0));
+    }
+
+    @Test
+    public void fewerDecimalDigitsRoundTheFloatGetters() {
+        RangeSlider slider = new RangeSlider(TestSliders.themedContext());
+        slider.setDecimalDigits(3);
+        slider.setScaledValueFrom(125);
+        slider.setScaledValueTo(100125);
+        slider.setScaledStepSize(250);
+
+        slider.setDecimalDigits(2);
+
+        assertEquals(13, slider.getScaledValueFrom());
+        assertEquals(25, slider.getScaledStepSize());
+        assertEquals(0.13f, slider.getValueFrom(), 0f);
+        assertEquals(100.13f, slider.getValueTo(), 0f);
+        assertEquals(0.25f, slider.getStepSize(), 0f);
+    }
+
+    @Test
+    public void stepSizeRoundingToZeroIsRejected() {
+        RangeSlider slider = new RangeSlider(TestSliders.themedContext());
+        slider.setValueFrom(0);
+        slider.setValueTo(1);
+        slider.setStepSize(0.001f);
+        try {
+            slider.setDecimalDigits(2);
+            fail("0.001 rounds to 0 with 2 decimal digits");
+        } catch (IllegalArgumentException expected) {
+            // The slider keeps its float configuration.
+        }
+
+        assertEquals(0.001f, slider.getStepSize(), 0f);
+        slider.setDecimalDigits(3);
+        assertEquals(1, slider.getScaledStepSize());
+    }
+
+    @Test
+    public void dragSnapsToScaledTicks() {
+        RangeSlider slider = createTouchable();
+
+        drag(slider, CENTER_X + 37);
+
+        long scaled = slider.getScaledValue(0);
+        assertEquals(0, scaled % 5);
+        assertEquals(scaled / 10f, slider.getValues().get(0), 1e-6f);
+    }
+
+    @Test
+    public void dragPastTheEndsClampsToScaledBounds() {
+        RangeSlider slider = createTouchable();
+
+        drag(slider, TestSliders.WIDTH * 2);
+        assertEquals(1000, slider.getScaledValue(0));
+
+        drag(slider, -TestSliders.WIDTH);
+        assertEquals(0, slider.getScaledValue(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void scaledSettersRequireDecimalDigits() {
+        RangeSlider slider = new RangeSlider(TestSliders.themedContext());
+
+        slider.setScaledValueTo(100);
+    }
+
+    // 0..100 in steps of 0.5, held as tenths.
+    private static RangeSlider createTouchable() {
+        RangeSlider slider = TestSliders.createTouchable(50f);
+        slider.setDecimalDigits(1);
+        slider.setScaledStepSize(5);
+        slider.onDraw(new NoOpCanvas());
+        return slider;
+    }
+
+    private static void drag(RangeSlider slider, float x) {
+        MotionEvent down = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, CENTER_X, 0, 0);
+        slider.onTouchEvent(down);
+        down.recycle();
+        MotionEvent move = MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, x, 0, 0);
+        slider.onTouchEvent(move);
+        move.recycle();
+        MotionEvent up = MotionEvent.obtain(0, 20, MotionEvent.ACTION_UP, x, 0, 0);
+        slider.onTouchEvent(up);
+        up.recycle();
+    }
+}
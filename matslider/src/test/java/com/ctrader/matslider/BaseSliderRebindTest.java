@@ -0,0 +1,123 @@
+package com.ctrader.matslider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BaseSliderRebindTest {
+
+    private static final int ITERATIONS = 1000;
+
+    private CountingSlider slider;
+    private final int[] changes = new int[1];
+
+    @Before
+    public void setUp() {
+        slider = new CountingSlider(TestSliders.themedContext());
+        slider.setValueFrom(0);
+        slider.setValueTo(100);
+        slider.setStepSize(1);
+        slider.setValues(new float[] {20f, 50f, 80f});
+        TestSliders.layout(slider);
+        slider.onDraw(new NoOpCanvas());
+        slider.addOnChangeListener(
+                new RangeSlider.OnChangeListener() {
+                    @Override
+                    public void onValueChange(@NonNull RangeSlider s, float value, boolean fromUser) {
+                        changes[0]++;
+                    }
+                });
+        slider.invalidations = 0;
+    }
+
+    @Test
+    public void rebindNotifiesNoListenerAndRedrawsOnce() {
+        slider.rebind(-50, 50, 5, new float[] {-10f, 25f});
+
+        assertEquals(0, changes[0]);
+        assertEquals(1, slider.invalidations);
+        assertEquals(-50f, slider.getValueFrom(), 0f);
+        assertEquals(50f, slider.getValueTo(), 0f);
+        assertArrayEquals(new float[] {-10f, 25f}, slider.getValues(null), 0f);
+    }
+
+    @Test
+    public void rebindWithoutMoreThumbsDoesNotAllocate() {
+        final float[] first = {10f, 40f, 70f};
+        // Both ranges have 101 ticks, so the tick coordinates keep their size too.
+        final float[] second = {0f, 4f, 200f};
+        slider.rebind(0, 200, 2, second);
+
+        final int[] next = new int[1];
+        long bytes =
+                AllocationCounter.measure(
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                if (next[0]++ % 2 == 0) {
+                                    slider.rebind(0, 100, 1, first);
+                                } else {
+                                    slider.rebind(0, 200, 2, second);
+                                }
+                            }
+                        },
+                        ITERATIONS);
+
+        assertEquals(0, bytes);
+    }
+
+    @Test
+    public void invalidRebindLeavesTheSliderUntouched() {
+        try {
+            slider.rebind(0, 10, 3, new float[] {3f});
+            fail("stepSize 3 doesn't divide 0..10");
+        } catch (IllegalArgumentException expected) {
+            // The slider must still be bound to its previous configuration.
+        }
+        try {
+            slider.rebind(0, 10, 1, new float[] {3f, 12f});
+            fail("12 is outside of 0..10");
+        } catch (IllegalArgumentException expected) {
+            // Same as above.
+        }
+
+        assertEquals(0f, slider.getValueFrom(), 0f);
+        assertEquals(100f, slider.getValueTo(), 0f);
+        assertEquals(1f, slider.getStepSize(), 0f);
+        assertArrayEquals(new float[] {20f, 50f, 80f}, slider.getValues(null), 0f);
+        slider.onDraw(new NoOpCanvas());
+    }
+
+    private static final class CountingSlider extends RangeSlider {
+
+        int invalidations;
+
+        CountingSlider(@NonNull Context context) {
+            super(context);
+        }
+
+        @Override
+        public void invalidate() {
+            invalidations++;
+            super.invalidate();
+        }
+
+        @Override
+        public void postInvalidate() {
+            invalidations++;
+            super.postInvalidate();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ctrader.matslider;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BaseSliderTickTest {
+
+    @Test
+    public void centStepsUpToHundredAreValid() {
+        RangeSlider slider = createLaidOut(100f, 0.01f, 0.01f, 99.99f, 100f);
+
+        slider.onDraw(new NoOpCanvas());
+
+        assertEquals(99.99f, slider.getValues().get(1), 0f);
+        assertEquals(100f, slider.getValues().get(2), 0f);
+    }
+
+    @Test
+    public void centStepsUpToThousandAreValid() {
+        RangeSlider slider = createLaidOut(1000f, 0.01f, 0.01f, 999.99f, 1000f);
+
+        slider.onDraw(new NoOpCanvas());
+
+        assertEquals(999.99f, slider.getValues().get(1), 0f);
+        assertEquals(1000f, slider.getValues().get(2), 0f);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void valueBetweenTicksIsRejected() {
+        RangeSlider slider = createLaidOut(1000f, 0.01f, 999.995f);
+
+        slider.onDraw(new NoOpCanvas());
+    }
+
+    @Test
+    public void allowedValuesIgnoreLeftoverStepSize() {
+        RangeSlider slider = new RangeSlider(TestSliders.themedContext());
+        slider.setValueFrom(0);
+        slider.setValueTo(10f);
+        slider.setStepSize(3f);
+        slider.setAllowedValues(new float[] {1f, 2.5f, 7f});
+        slider.setValues(2.5f);
+        TestSliders.layout(slider);
+
+        slider.onDraw(new NoOpCanvas());
+
+        assertEquals(2.5f, slider.getValues().get(0), 0f);
+    }
+
+    @Test
+    public void allowedValuesIgnoreLeftoverStepSizeWithDecimalDigits() {
+        RangeSlider slider = new RangeSlider(TestSliders.themedContext());
+        slider.setValueFrom(0);
+        slider.setValueTo(10f);
+        slider.setStepSize(3f);
+        slider.setDecimalDigits(1);
+        slider.setAllowedValues(new float[] {1f, 2.5f, 7f});
+        slider.setValues(2.5f);
+        TestSliders.layout(slider);
+
+        slider.onDraw(new NoOpCanvas());
+
+        assertEquals(2.5f, slider.getValues().get(0), 0f);
+    }
+
+    @Test
+    public void toDecimalUsesShortestDecimal() {
+        assertEquals(0.01, BaseSlider.toDecimal(0.01f), 0);
+        assertEquals(12345.67, BaseSlider.toDecimal(12345.67f), 0);
+        assertEquals(1000, BaseSlider.toDecimal(1000f), 0);
+    }
+
+    @NonNull
+    private static RangeSlider createLaidOut(float valueTo, float stepSize, float... values) {
+        RangeSlider slider = new RangeSlider(TestSliders.themedContext());
+        slider.setValueFrom(0);
+        slider.setValueTo(valueTo);
+        slider.setStepSize(stepSize);
+        slider.setValues(values);
+        TestSliders.layout(slider);
+        return slider;
+    }
+}
@@ -0,0 +1,82 @@
+package com.ctrader.matslider;
+
+import static org.junit.Assert.assertEquals;
+
+import android.view.MotionEvent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BaseSliderTouchReplayTest {
+
+    private static final int ITERATIONS = 1000;
+    private static final float CENTER_X = TestSliders.WIDTH / 2f;
+
+    private RangeSlider slider;
+    private MotionEvent down;
+    private final MotionEvent[] moves = new MotionEvent[2];
+
+    @Before
+    public void setUp() {
+        slider = TestSliders.createTouchable(50f);
+        down = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, CENTER_X, 0, 0);
+        moves[0] = MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, CENTER_X - 40, 0, 0);
+        moves[1] = MotionEvent.obtain(0, 20, MotionEvent.ACTION_MOVE, CENTER_X + 40, 0, 0);
+
+        slider.onTouchEvent(down);
+        // Warms up the drag so the measured moves only replay the steady state.
+        for (int i = 0; i < 10; i++) {
+            slider.onTouchEvent(moves[i % 2]);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        down.recycle();
+        for (MotionEvent move : moves) {
+            move.recycle();
+        }
+    }
+
+    @Test
+    public void dragDoesNotAllocate() {
+        final int[] next = new int[1];
+        long bytes =
+                AllocationCounter.measure(
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                slider.onTouchEvent(moves[next[0]++ % 2]);
+                            }
+                        },
+                        ITERATIONS);
+
+        assertEquals(0, bytes);
+    }
+
+    @Test
+    public void dragWithHistoricalSamplesDoesNotAllocate() {
+        slider.setHistoricalTouchSamplesEnabled(true);
+        moves[1].addBatch(30, CENTER_X + 60, 0, 1, 1, 0);
+        slider.onTouchEvent(moves[1]);
+
+        final int[] next = new int[1];
+        long bytes =
+                AllocationCounter.measure(
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                slider.onTouchEvent(moves[next[0]++ % 2]);
+                            }
+                        },
+                        ITERATIONS);
+
+        assertEquals(0, bytes);
+    }
+}
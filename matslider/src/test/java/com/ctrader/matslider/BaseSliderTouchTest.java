@@ -0,0 +1,71 @@
+package com.ctrader.matslider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BaseSliderTouchTest {
+
+    private static final float CENTER_X = TestSliders.WIDTH / 2f;
+
+    private RangeSlider slider;
+    private final List<Float> changes = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        slider = TestSliders.createTouchable(50f);
+        slider.addOnChangeListener(
+                new RangeSlider.OnChangeListener() {
+                    @Override
+                    public void onValueChange(@NonNull RangeSlider s, float value, boolean fromUser) {
+                        changes.add(value);
+                    }
+                });
+    }
+
+    @Test
+    public void batchedSamplesAreFoldedByDefault() {
+        dragWithBatchedSamples();
+
+        assertEquals(1, changes.size());
+    }
+
+    @Test
+    public void historicalSamplesAreDispatchedOnce() {
+        slider.setHistoricalTouchSamplesEnabled(true);
+
+        dragWithBatchedSamples();
+
+        assertEquals(1, changes.size());
+        assertEquals(slider.getValues().get(0), changes.get(0));
+        assertTrue(changes.get(0) > 50f);
+    }
+
+    private void dragWithBatchedSamples() {
+        MotionEvent down = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, CENTER_X, 0, 0);
+        slider.onTouchEvent(down);
+        down.recycle();
+        changes.clear();
+
+        MotionEvent move = MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, CENTER_X + 20, 0, 0);
+        move.addBatch(20, CENTER_X + 40, 0, 1, 1, 0);
+        move.addBatch(30, CENTER_X + 60, 0, 1, 1, 0);
+        move.addBatch(40, CENTER_X + 80, 0, 1, 1, 0);
+        slider.onTouchEvent(move);
+        move.recycle();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ctrader.matslider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SliderRenderResourcesTest {
+
+    private RangeSlider slider;
+
+    @Before
+    public void setUp() {
+        slider = TestSliders.createLaidOut(20f);
+    }
+
+    @Test
+    public void matchingTicksAreAdopted() {
+        SliderRenderResources resources =
+                SliderRenderResources.prefetch(
+                        slider.getRenderSpec(), TestSliders.WIDTH, 0, 100, 1, null);
+
+        slider.setRenderResources(resources);
+
+        float[] prefetched = resources.getTicksCoordinates(TestSliders.WIDTH, 0, 100, 1, null, 100);
+        assertNotNull(prefetched);
+        assertSame(prefetched, slider.getTicksCoordinates());
+    }
+
+    @Test
+    public void ticksForAnotherStepAreRejected() {
+        float[] computed = slider.getTicksCoordinates().clone();
+        SliderRenderResources resources =
+                SliderRenderResources.prefetch(
+                        slider.getRenderSpec(), TestSliders.WIDTH, 0, 100, 2, null);
+
+        slider.setRenderResources(resources);
+
+        float[] prefetched = resources.getTicksCoordinates(TestSliders.WIDTH, 0, 100, 2, null, 50);
+        assertNotNull(prefetched);
+        assertNotSame(prefetched, slider.getTicksCoordinates());
+        assertArrayEquals(computed, slider.getTicksCoordinates(), 0f);
+    }
+
+    @Test
+    public void ticksForAnotherWidthAreRejected() {
+        float[] computed = slider.getTicksCoordinates().clone();
+        SliderRenderResources resources =
+                SliderRenderResources.prefetch(
+                        slider.getRenderSpec(), TestSliders.WIDTH / 2, 0, 100, 1, null);
+
+        slider.setRenderResources(resources);
+
+        assertNull(resources.getTicksCoordinates(TestSliders.WIDTH, 0, 100, 1, null, 100));
+        assertArrayEquals(computed, slider.getTicksCoordinates(), 0f);
+    }
+
+    @Test
+    public void tickCountMatchesTheSliderForDecimalSteps() {
+        assertEquals(100000, BaseSlider.calculateTickCount(0, 1000, 0.01f));
+        assertEquals(10000, BaseSlider.calculateTickCount(0, 100, 0.01f));
+    }
+}
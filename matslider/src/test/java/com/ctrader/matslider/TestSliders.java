@@ -0,0 +1,56 @@
+package com.ctrader.matslider;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.view.View.MeasureSpec;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+
+final class TestSliders {
+
+    static final int WIDTH = 400;
+
+    private TestSliders() {
+    }
+
+    @NonNull
+    static Context themedContext() {
+        return new ContextThemeWrapper(
+                ApplicationProvider.getApplicationContext(), R.style.Theme_AppCompat_Light);
+    }
+
+    /**
+     * Returns a discrete slider from 0 to 100 with the given thumbs, measured and laid out
+     * {@link #WIDTH} pixels wide.
+     */
+    @NonNull
+    static RangeSlider createLaidOut(float... values) {
+        RangeSlider slider = new RangeSlider(themedContext());
+        slider.setValueFrom(0);
+        slider.setValueTo(100);
+        slider.setStepSize(1);
+        slider.setValues(values);
+        layout(slider);
+        return slider;
+    }
+
+    /**
+     * Like {@link #createLaidOut}, but with a parent so that the slider can take touch events.
+     */
+    @NonNull
+    static RangeSlider createTouchable(float... values) {
+        RangeSlider slider = createLaidOut(values);
+        new FrameLayout(slider.getContext()).addView(slider);
+        layout(slider);
+        return slider;
+    }
+
+    static void layout(@NonNull RangeSlider slider) {
+        slider.measure(
+                MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
+        slider.layout(0, 0, WIDTH, slider.getMeasuredHeight());
+    }
+}
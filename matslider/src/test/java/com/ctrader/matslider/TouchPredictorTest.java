@@ -0,0 +1,97 @@
+package com.ctrader.matslider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TouchPredictorTest {
+
+    private static final long HORIZON_MILLIS = 16;
+
+    @Test
+    public void noSampleIsNaN() {
+        TouchPredictor predictor = new TouchPredictor();
+
+        assertTrue(Float.isNaN(predictor.predict(HORIZON_MILLIS)));
+    }
+
+    @Test
+    public void singleSampleStaysPut() {
+        TouchPredictor predictor = new TouchPredictor();
+        predictor.addSample(100, 42f);
+
+        assertEquals(42f, predictor.predict(HORIZON_MILLIS), 0f);
+    }
+
+    @Test
+    public void resetForgetsSamples() {
+        TouchPredictor predictor = new TouchPredictor();
+        predictor.addSample(0, 0f);
+        predictor.addSample(8, 8f);
+
+        predictor.reset();
+
+        assertTrue(Float.isNaN(predictor.predict(HORIZON_MILLIS)));
+    }
+
+    @Test
+    public void constantVelocityIsExtrapolatedExactly() {
+        TouchPredictor predictor = new TouchPredictor();
+        // 1.5 px per millisecond, sampled every 8 ms.
+        for (long t = 0; t <= 32; t += 8) {
+            predictor.addSample(t, 10f + 1.5f * t);
+        }
+
+        assertEquals(10f + 1.5f * (32 + HORIZON_MILLIS), predictor.predict(HORIZON_MILLIS), 1e-3f);
+    }
+
+    @Test
+    public void decelerationErrorStaysWithinTheDistanceTravelled() {
+        TouchPredictor predictor = new TouchPredictor();
+        for (long t = 0; t <= 32; t += 8) {
+            predictor.addSample(t, position(t));
+        }
+
+        float predicted = predictor.predict(HORIZON_MILLIS);
+        float actual = position(32 + HORIZON_MILLIS);
+        float travelled = actual - position(32);
+
+        assertTrue(predicted > position(32));
+        assertEquals(actual, predicted, travelled + 1e-3f);
+    }
+
+    @Test
+    public void samplesOutsideTheWindowAreIgnored() {
+        TouchPredictor predictor = new TouchPredictor(20);
+        // Resting for a while, then a steady move of 2 px per millisecond.
+        predictor.addSample(0, 0f);
+        predictor.addSample(50, 0f);
+        for (long t = 100; t <= 120; t += 5) {
+            predictor.addSample(t, 2f * (t - 100));
+        }
+
+        assertEquals(2f * (20 + HORIZON_MILLIS), predictor.predict(HORIZON_MILLIS), 1e-3f);
+    }
+
+    @Test
+    public void olderTimestampStartsOver() {
+        TouchPredictor predictor = new TouchPredictor();
+        predictor.addSample(100, 0f);
+        predictor.addSample(108, 80f);
+
+        predictor.addSample(50, 5f);
+
+        assertEquals(5f, predictor.predict(HORIZON_MILLIS), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowMustBePositive() {
+        new TouchPredictor(0);
+    }
+
+    // Starts at 2 px per millisecond and slows down by 1/32 px per millisecond squared.
+    private static float position(long t) {
+        return 2f * t - t * t / 64f;
+    }
+}